@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.util.EntityUtils;
+import org.openo.sdno.overlayvpndriver.login.ControllerTransport;
+import org.openo.sdno.overlayvpndriver.login.ControllerTransportFactory;
+import org.openo.sdno.overlayvpndriver.test.mocoserver.WanInterfaceDriverHttpsServer;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Loopback throughput benchmark of the controller transports. <br>
+ * <p>
+ * Starts the Moco HTTPS controller stub of the WAN sub-interface query and sends the query with every
+ * transport from a number of threads for a fixed time. Run from the service directory, with the
+ * number of threads and the seconds per transport as optional arguments.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 1, 2016
+ */
+public class ControllerTransportBenchmark {
+
+    private static final String QUERY_URL =
+            "https://127.0.0.1:12307/controller/cloud/v2/northbound/devices/device1/arwansubinterface";
+
+    private static final String[] TRANSPORTS =
+            {ControllerTransportFactory.TRANSPORT_APACHE, ControllerTransportFactory.TRANSPORT_NIO};
+
+    private ControllerTransportBenchmark() {
+    }
+
+    /**
+     * Run the benchmark. <br>
+     *
+     * @param args optional number of threads, 16 by default, and seconds per transport, 20 by default
+     * @throws Exception When the stub or a transport can not be started
+     * @since SDNO 0.5
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        WanInterfaceDriverHttpsServer server = new WanInterfaceDriverHttpsServer();
+        server.start();
+        try {
+            for(String transport : TRANSPORTS) {
+                // warm up connections, TLS sessions and JIT before measuring
+                run(transport, threads, 2);
+                long requests = run(transport, threads, seconds);
+                System.out.println(String.format("%-8s %4d threads %10.1f requests/s", transport, threads,
+                        (double)requests / seconds));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static long run(String transportName, int threads, int seconds) throws Exception {
+        ControllerParam param = new ControllerParam();
+        param.setTransport(transportName);
+        param.setMaxTotal(threads);
+        param.setMaxPerRoute(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ControllerTransport transport = ControllerTransportFactory.create(param, new BasicCookieStore())) {
+            final long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<Future<Long>> results = new ArrayList<Future<Long>>();
+            for(int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    long count = 0;
+                    while(System.nanoTime() < endNanos) {
+                        HttpGet request = new HttpGet(QUERY_URL);
+                        request.addHeader("Content-Type", "application/json;charset=UTF-8");
+                        HttpResponse response = transport.execute(request);
+                        EntityUtils.consume(response.getEntity());
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+
+            long total = 0;
+            for(Future<Long> result : results) {
+                total += result.get();
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
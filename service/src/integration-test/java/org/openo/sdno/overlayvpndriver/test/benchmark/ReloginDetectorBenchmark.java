@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.test.benchmark;
+
+import org.openo.sdno.overlayvpndriver.login.ControllerReturnMessage;
+import org.openo.sdno.overlayvpndriver.login.ReloginDetector;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Microbenchmark of the relogin check on large controller listings. <br>
+ * <p>
+ * Compares the former full body scan for both SSO markers with the header verdict and with the
+ * bounded body prefix fallback. Run with the size of the listing in MB as optional argument.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 23, 2016
+ */
+public class ReloginDetectorBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+
+    private static final int MEASURED_ROUNDS = 50;
+
+    private static volatile boolean sink;
+
+    private ReloginDetectorBenchmark() {
+    }
+
+    /**
+     * Run the benchmark. <br>
+     *
+     * @param args optional size of the listing in MB, 4 by default
+     * @since SDNO 0.5
+     */
+    public static void main(String[] args) {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String body = createListing(sizeMb * 1024 * 1024);
+
+        HTTPReturnMessage plain = new HTTPReturnMessage();
+        plain.setBody(body);
+        ControllerReturnMessage classified = new ControllerReturnMessage();
+        classified.setBody(body);
+        classified.setReloginRequired(
+                ReloginDetector.isNeedRelogin(ReloginDetector.classify(200, null, "application/json"), body));
+
+        System.out.println("Listing of " + body.length() + " chars, average per check:");
+        report("full body scan", () -> body.indexOf("ssoRedirect") > 0 || body.indexOf("sso/logout") > 0);
+        report("body prefix", () -> ReloginDetector.isNeedRelogin(plain));
+        report("header verdict", () -> ReloginDetector.isNeedRelogin(classified));
+    }
+
+    private static String createListing(int size) {
+        StringBuilder builder = new StringBuilder(size + 128).append("{\"errcode\":\"0\",\"data\":[");
+        for(int i = 0; builder.length() < size; i++) {
+            builder.append("{\"id\":\"").append(i).append("\",\"name\":\"ipsec").append(i)
+                    .append("\",\"interfaceName\":\"GigabitEthernet0/0/1\",\"ipsecId\":\"").append(i).append("\"},");
+        }
+        return builder.append("{}]}").toString();
+    }
+
+    private static void report(String name, Check check) {
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink ^= check.run();
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink ^= check.run();
+        }
+        long averageNanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+        System.out.println(String.format("  %-15s %12d ns", name, averageNanos));
+    }
+
+    private interface Check {
+
+        boolean run();
+    }
+}
@@ -17,6 +17,7 @@
 package org.openo.sdno.overlayvpndriver;
 
 import org.openo.sdno.overlayvpn.inventory.sdk.DbOwerInfo;
+import org.openo.sdno.overlayvpndriver.login.SsoSessionKeepAlive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,9 +34,11 @@ public class OverlayVpnDriverRestModule {
     public void start() {
         LOGGER.info("Start OverlayVpnDriverRestModule adapter roa module.");
         DbOwerInfo.init("acBranchSvc", "acbranchdb");
+        SsoSessionKeepAlive.getInstance().start();
     }
 
     public void stop() {
         LOGGER.info("Stop OverlayVpnDriverRestModule adapter roa module.");
+        SsoSessionKeepAlive.getInstance().stop();
     }
 }
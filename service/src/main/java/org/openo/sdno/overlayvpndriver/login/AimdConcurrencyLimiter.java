@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Adaptive limit of the concurrent requests to one controller node. <br>
+ * <p>
+ * The limit grows by one for every limit's worth of successful requests while it is actually used,
+ * and is cut by the backoff ratio when the controller throttles (429, 503), a request gets no answer
+ * or its latency exceeds the threshold. A request over the limit waits for a free slot, a blocking
+ * caller in acquire, a non-blocking one in a queue served first whenever a slot is freed; a blocking
+ * caller does not take a slot while the queue is not empty. The limit so settles at the concurrency the
+ * controller can serve instead of a hand-tuned pool size. The limit never exceeds the connections per
+ * route, a request over it would only queue in the connection pool.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 26, 2016
+ */
+public class AimdConcurrencyLimiter {
+
+    /**
+     * Status of a request rejected because the limit stayed reached for the whole wait.
+     */
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+    private double limit;
+
+    private int inFlight = 0;
+
+    private final Deque<CompletableFuture<Boolean>> waiters = new ArrayDeque<CompletableFuture<Boolean>>();
+
+    /**
+     * Constructor<br>
+     *
+     * @param param controller parameters holding the limiter settings
+     * @since SDNO 0.5
+     */
+    public AimdConcurrencyLimiter(ControllerParam param) {
+        this.minLimit = Math.max(1, param.getConcurrencyMinLimit());
+        this.maxLimit = Math.max(minLimit, Math.min(param.getConcurrencyMaxLimit(), param.getMaxPerRoute()));
+        this.backoffRatio = Math.min(Math.max(param.getConcurrencyBackoffPercent(), 1), 99) / 100.0;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(param.getConcurrencyLatencyThreshold());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, param.getConcurrencyInitialLimit()));
+    }
+
+    /**
+     * Take a slot, waiting while the limit is reached or non-blocking callers are queued. <br>
+     *
+     * @param maxWaitMillis Maximum time to wait for a slot
+     * @return true if the slot was taken and has to be released, false if the wait timed out
+     * @since SDNO 0.5
+     */
+    public synchronized boolean acquire(long maxWaitMillis) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while(inFlight >= (int)limit || hasWaiters()) {
+            long leftNanos = deadlineNanos - System.nanoTime();
+            if(leftNanos <= 0) {
+                return false;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, leftNanos);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Take a slot without blocking the caller. <br>
+     *
+     * @param maxWaitMillis Maximum time to wait for a slot
+     * @param timer Scheduler ending the wait
+     * @return future completed with true once the slot is taken and has to be released, with false if the
+     *         wait timed out
+     * @since SDNO 0.5
+     */
+    public CompletableFuture<Boolean> acquireAsync(long maxWaitMillis, ScheduledExecutorService timer) {
+        final CompletableFuture<Boolean> waiter = new CompletableFuture<Boolean>();
+        synchronized(this) {
+            if(waiters.isEmpty() && inFlight < (int)limit) {
+                inFlight++;
+                waiter.complete(true);
+                return waiter;
+            }
+            if(maxWaitMillis <= 0) {
+                waiter.complete(false);
+                return waiter;
+            }
+            waiters.add(waiter);
+        }
+
+        final ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if(waiter.complete(false)) {
+                removeWaiter(waiter);
+            }
+        }, maxWaitMillis, TimeUnit.MILLISECONDS);
+        waiter.thenRun(() -> timeout.cancel(false));
+        return waiter;
+    }
+
+    /**
+     * Take a slot only if one is free right away and no non-blocking caller is queued. <br>
+     *
+     * @return true if the slot was taken and has to be released
+     * @since SDNO 0.5
+     */
+    public synchronized boolean tryAcquire() {
+        if(inFlight >= (int)limit || hasWaiters()) {
+            return false;
+        }
+
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Release a slot and adapt the limit to the outcome of the request. <br>
+     *
+     * @param latencyNanos Time the request took
+     * @param response The response, null if the request failed without one
+     * @since SDNO 0.5
+     */
+    public void release(long latencyNanos, HTTPReturnMessage response) {
+        List<CompletableFuture<Boolean>> granted;
+        synchronized(this) {
+            boolean utilized = inFlight * 2 >= limit;
+            inFlight--;
+
+            if(isDropped(latencyNanos, response)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if(utilized) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            granted = grantWaiters();
+            notifyAll();
+        }
+        complete(granted);
+    }
+
+    /**
+     * Release the slot of a request that the driver aborted itself, without adapting the limit. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public void cancel() {
+        List<CompletableFuture<Boolean>> granted;
+        synchronized(this) {
+            inFlight--;
+            granted = grantWaiters();
+            notifyAll();
+        }
+        complete(granted);
+    }
+
+    /**
+     * @return current limit of concurrent requests
+     */
+    public synchronized int getLimit() {
+        return (int)limit;
+    }
+
+    /**
+     * @return number of requests in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void removeWaiter(CompletableFuture<Boolean> waiter) {
+        waiters.remove(waiter);
+        notifyAll();
+    }
+
+    /**
+     * Check for queued non-blocking callers, dropping the ones whose wait timed out, must hold the lock.
+     */
+    private boolean hasWaiters() {
+        while(!waiters.isEmpty() && waiters.peek().isDone()) {
+            waiters.poll();
+        }
+        return !waiters.isEmpty();
+    }
+
+    /**
+     * Take the free slots for the queued non-blocking callers, must hold the lock.
+     */
+    private List<CompletableFuture<Boolean>> grantWaiters() {
+        List<CompletableFuture<Boolean>> granted = new ArrayList<CompletableFuture<Boolean>>();
+        while(inFlight < (int)limit && !waiters.isEmpty()) {
+            CompletableFuture<Boolean> waiter = waiters.poll();
+            if(!waiter.isDone()) {
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+        return granted;
+    }
+
+    /**
+     * Hand the slots to the callers outside the lock, as their requests continue in this thread.
+     */
+    private void complete(List<CompletableFuture<Boolean>> granted) {
+        for(CompletableFuture<Boolean> waiter : granted) {
+            if(!waiter.complete(true)) {
+                // the wait timed out meanwhile
+                cancel();
+            }
+        }
+    }
+
+    private boolean isDropped(long latencyNanos, HTTPReturnMessage response) {
+        if(null == response || latencyNanos > latencyThresholdNanos) {
+            return true;
+        }
+
+        int status = response.getStatus();
+        return status <= 0 || SC_TOO_MANY_REQUESTS == status || HttpStatus.SC_SERVICE_UNAVAILABLE == status;
+    }
+}
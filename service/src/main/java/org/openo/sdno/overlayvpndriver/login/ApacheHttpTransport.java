@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Transport sending blocking requests with the Apache HttpClient and non-blocking requests with the
+ * Apache HttpAsyncClient, each with its own connection pool. <br>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 1, 2016
+ */
+public class ApacheHttpTransport implements ControllerTransport {
+
+    private final CookieStore cookieStore;
+
+    private final boolean compression;
+
+    private final PoolingHttpClientConnectionManager connManager;
+
+    private final CloseableHttpClient httpClient;
+
+    private final PoolingNHttpClientConnectionManager asyncConnManager;
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param The controller parameters
+     * @param cookieStore The store of the session cookies
+     * @throws GeneralSecurityException When the TLS context can not be created
+     * @throws IOException When the IO reactor can not be started
+     * @since SDNO 0.5
+     */
+    public ApacheHttpTransport(ControllerParam param, CookieStore cookieStore)
+            throws GeneralSecurityException, IOException {
+        this.cookieStore = cookieStore;
+        this.compression = param.isCompressionEnabled();
+
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
+                .register("https", TlsContextFactory.getInstance().getSocketFactory()).build();
+        connManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry, null, null, null,
+                param.getConnectionTtl(), TimeUnit.MILLISECONDS);
+        connManager.setMaxTotal(param.getMaxTotal());
+        connManager.setDefaultMaxPerRoute(param.getMaxPerRoute());
+
+        // retries are done by the RetryPolicy of OverlayVpnDriverSsoProxy
+        HttpClientBuilder httpClientBuilder = HttpClients.custom().setConnectionManager(connManager)
+                .setDefaultCookieStore(cookieStore).setRedirectStrategy(new LaxRedirectStrategy())
+                .disableAutomaticRetries();
+        if(!compression) {
+            // the blocking client sends Accept-Encoding and decompresses responses by default
+            httpClientBuilder.disableContentCompression();
+        }
+        httpClient = httpClientBuilder.build();
+
+        asyncConnManager = ControllerTransportFactory.createAsyncConnManager(param);
+        httpAsyncClient = ControllerTransportFactory.createAsyncClient(asyncConnManager, cookieStore);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return httpClient.execute(request);
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
+        return httpClient.execute(request, responseHandler);
+    }
+
+    @Override
+    public void executeAsync(HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+        ControllerTransportFactory.executeAsync(httpAsyncClient, compression, request, callback);
+    }
+
+    @Override
+    public CookieStore getCookieStore() {
+        return cookieStore;
+    }
+
+    @Override
+    public void closeIdleConnections(long idleMillis) {
+        connManager.closeExpiredConnections();
+        connManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+        asyncConnManager.closeExpiredConnections();
+        asyncConnManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return ControllerTransportFactory.sum(connManager.getTotalStats(), asyncConnManager.getTotalStats());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            httpClient.close();
+        } finally {
+            httpAsyncClient.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Compression of the request and response bodies exchanged with one controller node. <br>
+ * <p>
+ * Request bodies of at least the threshold size are gzip compressed while they are written to the
+ * connection, the compressed body is never held in memory. The size of a streamed body is estimated
+ * from the number of its elements instead of writing it once to find out; a body of unknown size is
+ * compressed. A controller that answers a compressed request with 415 gets uncompressed requests from
+ * then on. Request compression is off unless the requestCompressionEnabled parameter is set, since not
+ * every controller accepts a compressed body. Responses are requested with Accept-Encoding and
+ * decompressed transparently unless the compressionEnabled parameter is cleared.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 29, 2016
+ */
+public class ContentCompression {
+
+    /**
+     * Value of the Accept-Encoding header of the requests.
+     */
+    public static final String ACCEPT_ENCODING = "gzip,deflate";
+
+    private static final String GZIP = "gzip";
+
+    private static final String DEFLATE = "deflate";
+
+    private final boolean enabled;
+
+    private final boolean requestEnabled;
+
+    private final int threshold;
+
+    private volatile boolean requestCompressionRejected = false;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param controller parameters holding the compression settings
+     * @since SDNO 0.5
+     */
+    public ContentCompression(ControllerParam param) {
+        this.enabled = param.isCompressionEnabled();
+        this.requestEnabled = param.isRequestCompressionEnabled();
+        this.threshold = Math.max(0, param.getCompressionThreshold());
+    }
+
+    /**
+     * @return true if compressed responses are accepted
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Compress a request body if it is large enough. <br>
+     *
+     * @param entity The request body, may be null
+     * @return the compressing body, or the given one if it is not compressed
+     * @since SDNO 0.5
+     */
+    public HttpEntity compress(HttpEntity entity) {
+        if(!requestEnabled || requestCompressionRejected || null == entity || null != entity.getContentEncoding()
+                || !entity.isRepeatable()) {
+            return entity;
+        }
+
+        long length = entity.getContentLength();
+        if(length < 0 && entity instanceof JsonStreamEntity) {
+            length = ((JsonStreamEntity)entity).getEstimatedLength();
+        }
+        return (length >= 0 && length < threshold) ? entity : new GzipEntity(entity);
+    }
+
+    /**
+     * Send uncompressed request bodies from now on, the controller does not accept compressed ones. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public void rejectRequestCompression() {
+        requestCompressionRejected = true;
+    }
+
+    /**
+     * Decompress a response body according to its Content-Encoding. <br>
+     *
+     * @param entity The response body, may be null
+     * @return the decompressing body, or the given one if it is not compressed
+     * @since SDNO 0.5
+     */
+    public static HttpEntity decompress(HttpEntity entity) {
+        Header encoding = (null == entity) ? null : entity.getContentEncoding();
+        if(null == encoding) {
+            return entity;
+        }
+
+        if(GZIP.equalsIgnoreCase(encoding.getValue())) {
+            return new GzipDecompressingEntity(entity);
+        }
+        if(DEFLATE.equalsIgnoreCase(encoding.getValue())) {
+            return new DeflateDecompressingEntity(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Body compressed while it is written. Only the non-blocking client reads a request body as a
+     * stream, it gets the compressed body from memory.
+     */
+    private static class GzipEntity extends GzipCompressingEntity {
+
+        GzipEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                wrappedEntity.writeTo(out);
+            }
+            return new ByteArrayInputStream(buffer.toByteArray());
+        }
+    }
+}
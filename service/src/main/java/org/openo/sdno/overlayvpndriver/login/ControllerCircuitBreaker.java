@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Circuit breaker of one controller. <br>
+ * <p>
+ * The outcome of the last calls is kept in a count based sliding window. When the failure rate or the
+ * slow call rate reaches its threshold the circuit opens and calls are rejected. After the wait
+ * duration a few trial calls are let through: if all of them succeed the circuit closes again,
+ * otherwise it opens for another wait duration.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 12, 2016
+ */
+public class ControllerCircuitBreaker {
+
+    /**
+     * State of the circuit breaker. <br>
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final int minimumNumberOfCalls;
+
+    private final long waitNanos;
+
+    private final int permittedCallsInHalfOpenState;
+
+    private final boolean[] failedCalls;
+
+    private final boolean[] slowCalls;
+
+    private int windowIndex = 0;
+
+    private int windowCount = 0;
+
+    private int failedCount = 0;
+
+    private int slowCount = 0;
+
+    private State state = State.CLOSED;
+
+    private long openedNanos = 0;
+
+    private int halfOpenPermits = 0;
+
+    private int halfOpenSucceeded = 0;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param controller parameters holding the thresholds
+     * @since SDNO 0.5
+     */
+    public ControllerCircuitBreaker(ControllerParam param) {
+        this.failureRateThreshold = param.getFailureRateThreshold();
+        this.slowCallRateThreshold = param.getSlowCallRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(param.getSlowCallDuration());
+        int windowSize = Math.max(1, param.getSlidingWindowSize());
+        this.minimumNumberOfCalls = Math.max(1, Math.min(windowSize, param.getMinimumNumberOfCalls()));
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(param.getWaitDurationInOpenState());
+        this.permittedCallsInHalfOpenState = Math.max(1, param.getPermittedCallsInHalfOpenState());
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    /**
+     * Check whether a call is permitted, moving an open circuit to half open after the wait duration. <br>
+     *
+     * @return true if the call may be sent
+     * @since SDNO 0.5
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if(State.OPEN == state) {
+            if(System.nanoTime() - openedNanos < waitNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = permittedCallsInHalfOpenState;
+            halfOpenSucceeded = 0;
+        }
+
+        if(State.HALF_OPEN == state) {
+            if(halfOpenPermits <= 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record the outcome of a permitted call. <br>
+     *
+     * @param durationNanos duration of the call
+     * @param success whether the controller answered properly
+     * @since SDNO 0.5
+     */
+    public synchronized void onResult(long durationNanos, boolean success) {
+        boolean slow = durationNanos > slowCallNanos;
+
+        if(State.HALF_OPEN == state) {
+            if(!success || slow) {
+                open();
+            } else if(++halfOpenSucceeded >= permittedCallsInHalfOpenState) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+
+        if(State.CLOSED != state) {
+            return;
+        }
+
+        record(!success, slow);
+        if(windowCount < minimumNumberOfCalls) {
+            return;
+        }
+
+        if(failedCount * 100 >= failureRateThreshold * windowCount
+                || slowCount * 100 >= slowCallRateThreshold * windowCount) {
+            open();
+        }
+    }
+
+    /**
+     * @return current state of the circuit
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if(windowCount == failedCalls.length) {
+            failedCount -= failedCalls[windowIndex] ? 1 : 0;
+            slowCount -= slowCalls[windowIndex] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        failedCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % failedCalls.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedNanos = System.nanoTime();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+}
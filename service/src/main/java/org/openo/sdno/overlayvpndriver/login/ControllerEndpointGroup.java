@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Active and standby nodes of one controller, with a health score per node. <br>
+ * <p>
+ * Requests go to the first available node in failover order, i.e. to the active node as long as it
+ * is healthy. The health score is an exponentially weighted success rate; a node whose score drops
+ * below the threshold is taken out for a cool-down period, after which the next request tries it
+ * again, so traffic fails back to the active node once it is up. The sessions of the standby nodes
+ * are logged in when the group is created and kept alive by SsoSessionKeepAlive, so a failover does
+ * not wait for a login.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 24, 2016
+ */
+public class ControllerEndpointGroup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControllerEndpointGroup.class);
+
+    private static final double HEALTH_ALPHA = 0.3;
+
+    private static final double HEALTHY_SCORE = 0.5;
+
+    private static final long DOWN_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String ctrlUuid;
+
+    private final List<Endpoint> endpoints;
+
+    /**
+     * Constructor<br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @param proxies The proxies of the nodes, active node first
+     * @since SDNO 0.5
+     */
+    public ControllerEndpointGroup(String ctrlUuid, List<OverlayVpnDriverSsoProxy> proxies) {
+        this.ctrlUuid = ctrlUuid;
+        List<Endpoint> endpointList = new ArrayList<Endpoint>(proxies.size());
+        for(OverlayVpnDriverSsoProxy proxy : proxies) {
+            endpointList.add(new Endpoint(ctrlUuid, proxy));
+        }
+        this.endpoints = Collections.unmodifiableList(endpointList);
+    }
+
+    /**
+     * Select the node for the next request. <br>
+     *
+     * @return the first available node, the one with the best score if none is available
+     * @since SDNO 0.5
+     */
+    public Endpoint select() {
+        Endpoint selected = selectOther(null);
+        if(null != selected) {
+            return selected;
+        }
+
+        Endpoint best = endpoints.get(0);
+        for(Endpoint endpoint : endpoints) {
+            if(endpoint.getHealthScore() > best.getHealthScore()) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Select a node to fail over to. <br>
+     *
+     * @param failed The node that failed, may be null
+     * @return the first available node other than the failed one, null if there is none
+     * @since SDNO 0.5
+     */
+    public Endpoint selectOther(Endpoint failed) {
+        long now = System.nanoTime();
+        for(Endpoint endpoint : endpoints) {
+            if(endpoint != failed && endpoint.isAvailable(now)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record the response of a request sent to a node. <br>
+     *
+     * @param endpoint The node
+     * @param response The response, null if the request was not completed
+     * @since SDNO 0.5
+     */
+    public void onResult(Endpoint endpoint, HTTPReturnMessage response) {
+        boolean nodeFailure = null == response || isNodeFailure(response);
+        if(endpoint.record(!nodeFailure) && endpoints.size() > 1) {
+            LOGGER.warn("Controller " + ctrlUuid + " node " + endpoint.getAddress() + " is down, fail over.");
+        }
+    }
+
+    /**
+     * Log in the standby nodes in background. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public void warmUp() {
+        for(int i = 1; i < endpoints.size(); i++) {
+            OverlayVpnDriverSsoProxy proxy = endpoints.get(i).getProxy();
+            if(!proxy.hasLoggedIn()) {
+                proxy.loginAsync(OverlayVpnDriverProxy.SSO_LOGIN);
+            }
+        }
+    }
+
+    /**
+     * @return health score of every node, keyed by address in failover order
+     */
+    public Map<String, Double> getHealthScores() {
+        Map<String, Double> scores = new LinkedHashMap<String, Double>();
+        for(Endpoint endpoint : endpoints) {
+            scores.put(endpoint.getAddress(), endpoint.getHealthScore());
+        }
+        return scores;
+    }
+
+    List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return true if the nodes of this group are the given proxies, in the same order
+     */
+    boolean hasProxies(List<OverlayVpnDriverSsoProxy> proxies) {
+        if(proxies.size() != endpoints.size()) {
+            return false;
+        }
+
+        for(int i = 0; i < proxies.size(); i++) {
+            if(proxies.get(i) != endpoints.get(i).getProxy()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keep the proxies of all nodes in the SsoProxyRegistry while the controller is in use.
+     */
+    void markUsed() {
+        for(Endpoint endpoint : endpoints) {
+            endpoint.getProxy().markUsed();
+        }
+    }
+
+    boolean isClosed() {
+        for(Endpoint endpoint : endpoints) {
+            if(endpoint.getProxy().isClosed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the response means the node did not process the request: no response at all, or a
+     * gateway or availability error.
+     *
+     * @param response The response
+     * @return true on a node failure
+     */
+    static boolean isNodeFailure(HTTPReturnMessage response) {
+        int status = response.getStatus();
+        return status <= 0 || HttpStatus.SC_BAD_GATEWAY == status || HttpStatus.SC_SERVICE_UNAVAILABLE == status
+                || HttpStatus.SC_GATEWAY_TIMEOUT == status;
+    }
+
+    /**
+     * One node of the controller. <br>
+     */
+    public static class Endpoint {
+
+        private final OverlayVpnDriverSsoProxy proxy;
+
+        private final String guardKey;
+
+        private double healthScore = 1.0;
+
+        private long downUntilNanos;
+
+        private boolean down = false;
+
+        Endpoint(String ctrlUuid, OverlayVpnDriverSsoProxy proxy) {
+            this.proxy = proxy;
+            this.guardKey = ctrlUuid + '@' + proxy.getAddress();
+        }
+
+        public OverlayVpnDriverSsoProxy getProxy() {
+            return proxy;
+        }
+
+        public String getAddress() {
+            return proxy.getAddress();
+        }
+
+        /**
+         * @return key of the circuit breaker of this node in the ControllerGuard
+         */
+        public String getGuardKey() {
+            return guardKey;
+        }
+
+        public synchronized double getHealthScore() {
+            return healthScore;
+        }
+
+        synchronized boolean isAvailable(long now) {
+            return !down || now - downUntilNanos >= 0;
+        }
+
+        /**
+         * @return true if the node has just been taken out
+         */
+        synchronized boolean record(boolean success) {
+            healthScore = HEALTH_ALPHA * (success ? 1.0 : 0.0) + (1 - HEALTH_ALPHA) * healthScore;
+            if(success || healthScore >= HEALTHY_SCORE) {
+                down = false;
+                return false;
+            }
+
+            long now = System.nanoTime();
+            boolean wasAvailable = isAvailable(now);
+            down = true;
+            downUntilNanos = now + DOWN_COOLDOWN_NANOS;
+            return wasAvailable;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.http.HttpStatus;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker of every controller node, keyed by controller UUID and node address. <br>
+ * <p>
+ * Calls to a node with an open circuit fail fast with a ServiceException; other nodes and controllers
+ * are not affected. The number of concurrent calls to a node is capped by the AimdConcurrencyLimiter of
+ * its OverlayVpnDriverSsoProxy, which takes the place of a separate bulkhead here.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 12, 2016
+ */
+public class ControllerGuard {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControllerGuard.class);
+
+    private static final ControllerGuard INSTANCE = new ControllerGuard();
+
+    private final ConcurrentMap<String, ControllerCircuitBreaker> breakers =
+            new ConcurrentHashMap<String, ControllerCircuitBreaker>();
+
+    private ControllerGuard() {
+    }
+
+    /**
+     * Get the instance. <br>
+     *
+     * @return the instance
+     * @since SDNO 0.5
+     */
+    public static ControllerGuard getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Acquire a permit for one call to the controller, failing fast instead of waiting. <br>
+     *
+     * @param ctlrUuid The controller UUID
+     * @param param The controller parameters, used when the controller is guarded the first time
+     * @return permit to be released with the response once the call is done
+     * @throws ServiceException When the circuit is open
+     * @since SDNO 0.5
+     */
+    public Permit tryAcquire(String ctlrUuid, ControllerParam param) throws ServiceException {
+        ControllerCircuitBreaker breaker =
+                breakers.computeIfAbsent(ctlrUuid, key -> new ControllerCircuitBreaker(param));
+        if(!breaker.tryAcquirePermission()) {
+            String errMsg = "Controller " + ctlrUuid + " is unavailable, circuit breaker is open";
+            LOGGER.error(errMsg);
+            throw new ServiceException(ErrorCode.OVERLAYVPN_FAILED, errMsg);
+        }
+
+        return new Permit(breaker);
+    }
+
+    /**
+     * Get the circuit breaker state of every guarded controller. <br>
+     *
+     * @return map of controller UUID to circuit breaker state
+     * @since SDNO 0.5
+     */
+    public Map<String, ControllerCircuitBreaker.State> getStates() {
+        Map<String, ControllerCircuitBreaker.State> states = new HashMap<String, ControllerCircuitBreaker.State>();
+        for(Map.Entry<String, ControllerCircuitBreaker> entry : breakers.entrySet()) {
+            states.put(entry.getKey(), entry.getValue().getState());
+        }
+        return states;
+    }
+
+    /**
+     * Forget the circuit breaker of the controller. <br>
+     *
+     * @param ctlrUuid The controller UUID
+     * @since SDNO 0.5
+     */
+    public void remove(String ctlrUuid) {
+        breakers.remove(ctlrUuid);
+    }
+
+    static boolean isFailure(HTTPReturnMessage response) {
+        return null == response || response.getStatus() <= 0
+                || response.getStatus() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Permit of one call, recording its outcome in the circuit breaker when released. <br>
+     */
+    public static class Permit {
+
+        private final ControllerCircuitBreaker breaker;
+
+        private final long startNanos = System.nanoTime();
+
+        private boolean released = false;
+
+        Permit(ControllerCircuitBreaker breaker) {
+            this.breaker = breaker;
+        }
+
+        /**
+         * Record the outcome of the call in the circuit breaker. <br>
+         *
+         * @param response response of the call, null if the call did not complete
+         * @since SDNO 0.5
+         */
+        public synchronized void release(HTTPReturnMessage response) {
+            if(released) {
+                return;
+            }
+            released = true;
+            breaker.onResult(System.nanoTime() - startNanos, !isFailure(response));
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.esr.invdao.SdnControllerDao;
+import org.openo.sdno.overlayvpn.esr.model.SdnController;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of controller UUID to the resolved ControllerEndpointGroup. <br>
+ * <p>
+ * Avoids an inventory query for every southbound request. Entries expire after a TTL so that a
+ * changed controller URL or credential is picked up, controllers that can not be resolved are cached
+ * for a shorter time. Concurrent misses of one controller wait for a single inventory query, and an
+ * expired group whose nodes are unchanged is kept, with the health of its nodes. The inventory holds
+ * the URL of the active node, the standby nodes are taken from the standbyAddresses of its controller
+ * parameters and share its credential.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Jul 21, 2016
+ */
+public class ControllerProxyCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControllerProxyCache.class);
+
+    private static final long POSITIVE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final long NEGATIVE_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final int RESOLVE_THREAD_NUM = 2;
+
+    private static final ExecutorService RESOLVE_EXECUTOR = Executors.newFixedThreadPool(RESOLVE_THREAD_NUM, r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-controller-resolve");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ControllerProxyCache INSTANCE = new ControllerProxyCache();
+
+    private final Map<String, CacheEntry> ctrlUuidToProxy = new ConcurrentHashMap<String, CacheEntry>();
+
+    private final ConcurrentMap<String, CompletableFuture<CacheEntry>> ctrlUuidToLoader =
+            new ConcurrentHashMap<String, CompletableFuture<CacheEntry>>();
+
+    private ControllerProxyCache() {
+    }
+
+    /**
+     * Get instance. <br>
+     *
+     * @return the ControllerProxyCache instance
+     * @since SDNO 0.5
+     */
+    public static ControllerProxyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the proxy of the node of one controller requests should go to. <br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @return the proxy, null if the controller can not be resolved
+     * @since SDNO 0.5
+     */
+    public OverlayVpnDriverSsoProxy get(String ctrlUuid) {
+        ControllerEndpointGroup group = getGroup(ctrlUuid);
+        return (null == group) ? null : group.select().getProxy();
+    }
+
+    /**
+     * Get the nodes of one controller, querying inventory only if not cached or expired. <br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @return the endpoint group, null if the controller can not be resolved
+     * @since SDNO 0.5
+     */
+    public ControllerEndpointGroup getGroup(String ctrlUuid) {
+        if(null == ctrlUuid) {
+            return null;
+        }
+
+        CacheEntry entry = ctrlUuidToProxy.get(ctrlUuid);
+        if(!isValid(entry)) {
+            try {
+                entry = load(ctrlUuid, Runnable::run).join();
+            } catch(CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException) ? (RuntimeException)e.getCause() : e;
+            }
+        }
+
+        return use(entry);
+    }
+
+    /**
+     * Get the nodes of one controller without blocking the caller. <br>
+     * <p>
+     * When the controller is not cached or expired, inventory is queried on a dedicated executor.
+     * </p>
+     *
+     * @param ctrlUuid The controller UUID
+     * @return future of the endpoint group, completed with null if the controller can not be resolved
+     * @since SDNO 0.5
+     */
+    public CompletableFuture<ControllerEndpointGroup> getGroupAsync(String ctrlUuid) {
+        if(null == ctrlUuid) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CacheEntry entry = ctrlUuidToProxy.get(ctrlUuid);
+        if(isValid(entry)) {
+            return CompletableFuture.completedFuture(use(entry));
+        }
+
+        return load(ctrlUuid, RESOLVE_EXECUTOR).thenApply(ControllerProxyCache::use);
+    }
+
+    /**
+     * Invalidate the cached proxy of one controller. <br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @since SDNO 0.5
+     */
+    public void invalidate(String ctrlUuid) {
+        if(null != ctrlUuid) {
+            ctrlUuidToProxy.remove(ctrlUuid);
+        }
+    }
+
+    /**
+     * Invalidate all cached proxies. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public void invalidateAll() {
+        ctrlUuidToProxy.clear();
+    }
+
+    /**
+     * Query inventory once for all concurrent misses of one controller, the query runs on the executor
+     * of the first miss.
+     */
+    private CompletableFuture<CacheEntry> load(final String ctrlUuid, Executor executor) {
+        final CompletableFuture<CacheEntry> loader = new CompletableFuture<CacheEntry>();
+        CompletableFuture<CacheEntry> running = ctrlUuidToLoader.putIfAbsent(ctrlUuid, loader);
+        if(null != running) {
+            return running;
+        }
+
+        executor.execute(() -> {
+            try {
+                CacheEntry entry = ctrlUuidToProxy.get(ctrlUuid);
+                if(!isValid(entry)) {
+                    entry = refresh(ctrlUuid, (null == entry) ? null : entry.group);
+                    ctrlUuidToProxy.put(ctrlUuid, entry);
+                }
+                loader.complete(entry);
+            } catch(RuntimeException e) {
+                loader.completeExceptionally(e);
+            } finally {
+                ctrlUuidToLoader.remove(ctrlUuid, loader);
+            }
+        });
+        return loader;
+    }
+
+    private static ControllerEndpointGroup use(CacheEntry entry) {
+        if(null != entry.group) {
+            entry.group.markUsed();
+        }
+        return entry.group;
+    }
+
+    /**
+     * Resolve the nodes again, the expired group is kept with its health state if they are unchanged.
+     */
+    private static CacheEntry refresh(String ctrlUuid, ControllerEndpointGroup expired) {
+        List<OverlayVpnDriverSsoProxy> proxies = resolve(ctrlUuid);
+        if(null == proxies) {
+            return new CacheEntry(null, NEGATIVE_TTL_NANOS);
+        }
+
+        if(null != expired && !expired.isClosed() && expired.hasProxies(proxies)) {
+            return new CacheEntry(expired, POSITIVE_TTL_NANOS);
+        }
+
+        ControllerEndpointGroup group = new ControllerEndpointGroup(ctrlUuid, proxies);
+        group.markUsed();
+        group.warmUp();
+        return new CacheEntry(group, POSITIVE_TTL_NANOS);
+    }
+
+    private static boolean isValid(CacheEntry entry) {
+        return null != entry && !entry.isExpired() && (null == entry.group || !entry.group.isClosed());
+    }
+
+    private static List<OverlayVpnDriverSsoProxy> resolve(String ctrlUuid) {
+        try {
+            SdnController sdnController = new SdnControllerDao().querySdnControllerById(ctrlUuid);
+            if(null == sdnController) {
+                LOGGER.error("Controller not found: " + ctrlUuid);
+                return null;
+            }
+
+            URL url = new URL(sdnController.getUrl());
+            List<OverlayVpnDriverSsoProxy> proxies = new ArrayList<OverlayVpnDriverSsoProxy>();
+            proxies.add(OverlayVpnDriverSsoProxy.getInstance(url.getHost(), String.valueOf(url.getPort()),
+                    sdnController.getUserName(), sdnController.getPassword()));
+
+            for(String standby : ControllerParamReader.getControllerParam(url.getHost()).getStandbyAddresses()) {
+                int separator = standby.lastIndexOf(':');
+                if(separator <= 0) {
+                    LOGGER.warn("Invalid standby address of controller " + ctrlUuid + ": " + standby);
+                    continue;
+                }
+                proxies.add(OverlayVpnDriverSsoProxy.getInstance(standby.substring(0, separator),
+                        standby.substring(separator + 1), sdnController.getUserName(), sdnController.getPassword()));
+            }
+
+            return proxies;
+        } catch(ServiceException | MalformedURLException e) {
+            LOGGER.error("create OverlayVpnDriverSsoProxy faied", e);
+        }
+
+        return null;
+    }
+
+    private static class CacheEntry {
+
+        private final ControllerEndpointGroup group;
+
+        private final long expireNanos;
+
+        CacheEntry(ControllerEndpointGroup group, long ttlNanos) {
+            this.group = group;
+            this.expireNanos = System.nanoTime() + ttlNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expireNanos >= 0;
+        }
+    }
+}
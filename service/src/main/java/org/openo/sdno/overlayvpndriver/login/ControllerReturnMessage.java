@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * HTTPReturnMessage carrying the relogin verdict taken while the response headers were at hand. <br>
+ * <p>
+ * A null verdict means the response was not classified, callers then fall back to the body prefix.
+ * A failed request also tells whether it was never sent, such a request can be sent to another node.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 23, 2016
+ */
+public class ControllerReturnMessage extends HTTPReturnMessage {
+
+    private Boolean reloginRequired;
+
+    private boolean notSent;
+
+    public Boolean getReloginRequired() {
+        return reloginRequired;
+    }
+
+    public void setReloginRequired(Boolean reloginRequired) {
+        this.reloginRequired = reloginRequired;
+    }
+
+    public boolean isNotSent() {
+        return notSent;
+    }
+
+    public void setNotSent(boolean notSent) {
+        this.notSent = notSent;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * HTTP transport of the requests to one controller node. <br>
+ * <p>
+ * OverlayVpnDriverSsoProxy builds the requests and handles login, retry, limits and compression of
+ * request bodies; the transport sends them, follows redirects, decompresses response bodies and keeps
+ * the SSO session cookies. Both the blocking and the non-blocking methods must share the cookie store,
+ * so a login done by one is seen by the other. Implementations are created by the
+ * ControllerTransportFactory.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 1, 2016
+ */
+public interface ControllerTransport extends Closeable {
+
+    /**
+     * Send a request and wait for the response. <br>
+     *
+     * @param request The request
+     * @return the response, its entity has to be consumed by the caller
+     * @throws IOException When the request fails
+     * @since SDNO 0.5
+     */
+    HttpResponse execute(HttpUriRequest request) throws IOException;
+
+    /**
+     * Send a request and stream the response body to the handler. <br>
+     *
+     * @param request The request
+     * @param responseHandler Handler reading the response, the entity is consumed afterwards
+     * @return the result of the handler
+     * @throws IOException When the request fails
+     * @since SDNO 0.5
+     */
+    <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException;
+
+    /**
+     * Send a request without blocking the caller. <br>
+     *
+     * @param request The request
+     * @param callback Callback receiving the response with its body buffered
+     * @since SDNO 0.5
+     */
+    void executeAsync(HttpUriRequest request, FutureCallback<HttpResponse> callback);
+
+    /**
+     * @return the session cookies shared by all requests of this transport
+     */
+    CookieStore getCookieStore();
+
+    /**
+     * Close expired connections and connections idle for longer than the given time. <br>
+     *
+     * @param idleMillis Maximum idle time of a pooled connection
+     * @since SDNO 0.5
+     */
+    void closeIdleConnections(long idleMillis);
+
+    /**
+     * @return leased, available, pending and max connections of all pools of this transport
+     */
+    PoolStats getPoolStats();
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the ControllerTransport configured for a controller node. <br>
+ * <p>
+ * The transport parameter of the controller selects the implementation: "apache", the default, sends
+ * blocking requests with the blocking Apache HttpClient and non-blocking ones with the Apache
+ * HttpAsyncClient; "nio" sends all requests with the HttpAsyncClient, so a node needs only IO threads
+ * and a single connection pool.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 1, 2016
+ */
+public class ControllerTransportFactory {
+
+    /**
+     * Blocking Apache HttpClient, plus HttpAsyncClient for the non-blocking requests.
+     */
+    public static final String TRANSPORT_APACHE = "apache";
+
+    /**
+     * Apache HttpAsyncClient only.
+     */
+    public static final String TRANSPORT_NIO = "nio";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControllerTransportFactory.class);
+
+    private static final int IO_THREAD_NUM = 2;
+
+    private ControllerTransportFactory() {
+    }
+
+    /**
+     * Create the transport of a controller node. <br>
+     *
+     * @param param The controller parameters
+     * @param cookieStore The store of the session cookies
+     * @return the transport
+     * @throws GeneralSecurityException When the TLS context can not be created
+     * @throws IOException When the IO reactor can not be started
+     * @since SDNO 0.5
+     */
+    public static ControllerTransport create(ControllerParam param, CookieStore cookieStore)
+            throws GeneralSecurityException, IOException {
+        if(TRANSPORT_NIO.equalsIgnoreCase(param.getTransport())) {
+            return new NioHttpTransport(param, cookieStore);
+        }
+
+        if(!TRANSPORT_APACHE.equalsIgnoreCase(param.getTransport())) {
+            LOGGER.warn("Unknown controller transport " + param.getTransport() + ", use " + TRANSPORT_APACHE);
+        }
+        return new ApacheHttpTransport(param, cookieStore);
+    }
+
+    static PoolingNHttpClientConnectionManager createAsyncConnManager(ControllerParam param)
+            throws GeneralSecurityException, IOReactorException {
+        Registry<SchemeIOSessionStrategy> ioSessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy> create()
+                .register("https", TlsContextFactory.getInstance().getIoSessionStrategy()).build();
+        PoolingNHttpClientConnectionManager asyncConnManager = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(IOReactorConfig.custom().setIoThreadCount(IO_THREAD_NUM).build()),
+                null, ioSessionStrategyRegistry, null, null, param.getConnectionTtl(), TimeUnit.MILLISECONDS);
+        asyncConnManager.setMaxTotal(param.getMaxTotal());
+        asyncConnManager.setDefaultMaxPerRoute(param.getMaxPerRoute());
+        return asyncConnManager;
+    }
+
+    static CloseableHttpAsyncClient createAsyncClient(PoolingNHttpClientConnectionManager asyncConnManager,
+            CookieStore cookieStore) {
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom().setConnectionManager(asyncConnManager)
+                .setDefaultCookieStore(cookieStore).setRedirectStrategy(new LaxRedirectStrategy()).build();
+        httpAsyncClient.start();
+        return httpAsyncClient;
+    }
+
+    /**
+     * Send a request with the HttpAsyncClient, which neither asks for nor decompresses compressed
+     * responses by itself. Aborting the request cancels the exchange and releases its connection.
+     */
+    static void executeAsync(CloseableHttpAsyncClient httpAsyncClient, boolean compression,
+            HttpUriRequest request, final FutureCallback<HttpResponse> callback) {
+        if(compression) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, ContentCompression.ACCEPT_ENCODING);
+        }
+
+        Future<HttpResponse> future = httpAsyncClient.execute(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(HttpResponse response) {
+                if(compression) {
+                    response.setEntity(ContentCompression.decompress(response.getEntity()));
+                }
+                callback.completed(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                callback.failed(e);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+        });
+        if(request instanceof HttpRequestBase) {
+            ((HttpRequestBase)request).setCancellable(() -> future.cancel(true));
+        }
+    }
+
+    static PoolStats sum(PoolStats stats1, PoolStats stats2) {
+        return new PoolStats(stats1.getLeased() + stats2.getLeased(), stats1.getPending() + stats2.getPending(),
+                stats1.getAvailable() + stats2.getAvailable(), stats1.getMax() + stats2.getMax());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+/**
+ * HTTPReturnMessage whose JSON body was decoded directly from the response stream. <br>
+ * <p>
+ * When the response is decoded the body string is not kept, it is only set for responses that were
+ * not decoded, such as errors and SSO redirects. A successful response whose body does not match the
+ * expected type keeps its status and carries the decode error instead of a decoded value.
+ * </p>
+ *
+ * @param <T> type of the decoded response
+ * @author
+ * @version SDNO 0.5 Jul 21, 2016
+ */
+public class DecodedReturnMessage<T> extends ControllerReturnMessage {
+
+    private T decoded;
+
+    private String decodeError;
+
+    public T getDecoded() {
+        return decoded;
+    }
+
+    public void setDecoded(T decoded) {
+        this.decoded = decoded;
+    }
+
+    /**
+     * @return why the body could not be decoded, null if it was decoded or not meant to be
+     */
+    public String getDecodeError() {
+        return decodeError;
+    }
+
+    public void setDecodeError(String decodeError) {
+        this.decodeError = decodeError;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Hedging delay of the GET requests to one controller node. <br>
+ * <p>
+ * The latency of the last GET attempts is kept in a ring buffer; a second attempt is sent when the
+ * first one has not answered within the configured percentile of these latencies, but never earlier
+ * than the minimum delay. Until enough latencies are known no request is hedged.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 5, 2016
+ */
+public class HedgingPolicy {
+
+    private static final int WINDOW_SIZE = 200;
+
+    private static final int MINIMUM_SAMPLES = 20;
+
+    private static final int RECOMPUTE_INTERVAL = 20;
+
+    private final boolean enabled;
+
+    private final int percentile;
+
+    private final long minDelayMillis;
+
+    private final long[] latencies = new long[WINDOW_SIZE];
+
+    private int index = 0;
+
+    private int count = 0;
+
+    private int sinceRecompute = 0;
+
+    private long delayMillis = -1;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param controller parameters holding the hedging settings
+     * @since SDNO 0.5
+     */
+    public HedgingPolicy(ControllerParam param) {
+        this.enabled = param.isHedgingEnabled();
+        this.percentile = Math.min(Math.max(param.getHedgingPercentile(), 1), 99);
+        this.minDelayMillis = Math.max(0, param.getHedgingMinDelay());
+    }
+
+    /**
+     * Record the latency of a completed GET attempt. <br>
+     *
+     * @param latencyNanos The latency
+     * @since SDNO 0.5
+     */
+    public synchronized void record(long latencyNanos) {
+        latencies[index] = latencyNanos;
+        index = (index + 1) % WINDOW_SIZE;
+        count = Math.min(count + 1, WINDOW_SIZE);
+        if(++sinceRecompute >= RECOMPUTE_INTERVAL && count >= MINIMUM_SAMPLES) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            long percentileNanos = sorted[Math.min(count - 1, count * percentile / 100)];
+            delayMillis = Math.max(minDelayMillis, TimeUnit.NANOSECONDS.toMillis(percentileNanos));
+        }
+    }
+
+    /**
+     * @return true if GET requests to this node are hedged
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the time after which a second attempt is sent. <br>
+     *
+     * @return delay in milliseconds, negative if the request must not be hedged
+     * @since SDNO 0.5
+     */
+    public synchronized long getDelayMillis() {
+        return enabled ? delayMillis : -1;
+    }
+}
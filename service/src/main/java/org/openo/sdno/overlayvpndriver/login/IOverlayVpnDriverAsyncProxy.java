@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Non-blocking variant of {@link IOverlayVpnDriverProxy}. <br>
+ * <p>
+ * A failed request is reported the same way as by the blocking proxy, through the status of the
+ * HTTPReturnMessage. The returned futures complete exceptionally with a ServiceException only when the
+ * request is rejected before it is sent, because the circuit breaker of the controller node is open or
+ * the request deadline has passed. No method waits for a permit on the calling thread.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 5, 2016
+ */
+public interface IOverlayVpnDriverAsyncProxy {
+
+    /**
+     * Send get restful request.<br>
+     *
+     * @param url The restful URL path
+     * @param body The message body
+     * @param ctlrUuid The controller UUID
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    CompletableFuture<HTTPReturnMessage> sendGetMsg(String url, String body, String ctlrUuid);
+
+    /**
+     * Send post restful request.<br>
+     *
+     * @param url The restful URL path
+     * @param body The message body
+     * @param ctlrUuid The controller UUID
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    CompletableFuture<HTTPReturnMessage> sendPostMsg(String url, String body, String ctlrUuid);
+
+    /**
+     * Send put restful request.<br>
+     *
+     * @param url The restful URL path
+     * @param body The message body
+     * @param ctlrUuid The controller UUID
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    CompletableFuture<HTTPReturnMessage> sendPutMsg(String url, String body, String ctlrUuid);
+
+    /**
+     * Send delete restful request.<br>
+     *
+     * @param url The restful URL path
+     * @param body The message body
+     * @param ctlrUuid The controller UUID
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    CompletableFuture<HTTPReturnMessage> sendDeleteMsg(String url, String body, String ctlrUuid);
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.openo.sdno.framework.container.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Request entity writing an object as JSON directly to the connection output stream. <br>
+ * <p>
+ * The body is not materialized as a String or byte array, so large batches are held in memory only
+ * as the model objects. The entity is repeatable, so it can be sent again after a relogin. As the
+ * length is unknown upfront, the body is sent with chunked transfer encoding; a cheap estimate of it
+ * from the number of list and map elements is available to decide on compression. The body is written
+ * with the ObjectMapper of JsonUtil, so it is the same as the one of JsonUtil.toJson.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Jul 21, 2016
+ */
+public class JsonStreamEntity extends AbstractHttpEntity {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonStreamEntity.class);
+
+    private static final ObjectMapper MAPPER = getJsonUtilMapper();
+
+    /**
+     * Assumed JSON size of one element, the models sent in batches are well above it.
+     */
+    private static final int ESTIMATED_ELEMENT_SIZE = 256;
+
+    private final Object value;
+
+    /**
+     * Constructor<br>
+     *
+     * @param value object to write as JSON
+     * @since SDNO 0.5
+     */
+    public JsonStreamEntity(Object value) {
+        this.value = value;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Estimate the length of the body from the number of its elements, without serializing it. <br>
+     *
+     * @return estimated length in bytes
+     * @since SDNO 0.5
+     */
+    public long getEstimatedLength() {
+        return estimateLength(value, true);
+    }
+
+    private static long estimateLength(Object value, boolean descend) {
+        if(value instanceof Collection) {
+            return ESTIMATED_ELEMENT_SIZE * (long)((Collection<?>)value).size();
+        }
+        if(value instanceof Map) {
+            if(!descend) {
+                return ESTIMATED_ELEMENT_SIZE * (long)((Map<?, ?>)value).size();
+            }
+            long length = 0;
+            for(Object entry : ((Map<?, ?>)value).values()) {
+                length += estimateLength(entry, false);
+            }
+            return length;
+        }
+        return ESTIMATED_ELEMENT_SIZE;
+    }
+
+    /**
+     * JsonUtil does not expose its ObjectMapper, so it is looked up as its static field. Without it the
+     * serialization inclusion JsonUtil configures is applied to a new one.
+     */
+    private static ObjectMapper getJsonUtilMapper() {
+        for(Field field : JsonUtil.class.getDeclaredFields()) {
+            if(!Modifier.isStatic(field.getModifiers()) || !ObjectMapper.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                ObjectMapper mapper = (ObjectMapper)field.get(null);
+                if(null != mapper) {
+                    return mapper;
+                }
+            } catch(IllegalAccessException | SecurityException e) {
+                LOGGER.warn("Get ObjectMapper of JsonUtil failed", e);
+            }
+        }
+
+        LOGGER.warn("ObjectMapper of JsonUtil not found, use a new one");
+        return new ObjectMapper().setSerializationInclusion(JsonSerialize.Inclusion.NON_NULL);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(MAPPER.writeValueAsBytes(value));
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        // the mapper is shared with JsonUtil, the stream is kept open on the generator instead
+        JsonGenerator generator = MAPPER.getJsonFactory().createJsonGenerator(outstream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if(MAPPER.getSerializationConfig().isEnabled(SerializationConfig.Feature.INDENT_OUTPUT)) {
+            generator.useDefaultPrettyPrinter();
+        }
+        try {
+            MAPPER.writeValue(generator, value);
+        } finally {
+            generator.close();
+        }
+        outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
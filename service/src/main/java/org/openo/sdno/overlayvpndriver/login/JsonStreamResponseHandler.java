@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.JavaType;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Response handler decoding a JSON controller response directly from the entity stream. <br>
+ * <p>
+ * The response is classified by the {@link ReloginDetector} first; SSO redirects, as well as non 2xx
+ * responses, are kept as a body string so that the relogin and error handling stay unchanged. Other
+ * responses are decoded after the start of the body was checked for the SSO markers, whatever their
+ * content type. A body that is not the expected JSON is reported through the decode error of the
+ * message with its real status, so that it is neither retried nor taken for a node failure.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Jul 21, 2016
+ */
+public class JsonStreamResponseHandler implements ResponseHandler<HTTPReturnMessage> {
+
+    private static final int PEEK_SIZE = ReloginDetector.BODY_PREFIX_SIZE;
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final JavaType responseType;
+
+    /**
+     * Constructor<br>
+     *
+     * @param responseType type to decode the response body into
+     * @since SDNO 0.5
+     */
+    public JsonStreamResponseHandler(JavaType responseType) {
+        this.responseType = responseType;
+    }
+
+    @Override
+    public HTTPReturnMessage handleResponse(HttpResponse response) throws IOException {
+        DecodedReturnMessage<Object> msg = new DecodedReturnMessage<Object>();
+        int status = response.getStatusLine().getStatusCode();
+        msg.setStatus(status);
+
+        HttpEntity entity = response.getEntity();
+        if(null == entity) {
+            return msg;
+        }
+
+        ReloginDetector.Verdict verdict = ReloginDetector.classify(response);
+        if(status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES
+                || ReloginDetector.Verdict.RELOGIN == verdict) {
+            msg.setBody(EntityUtils.toString(entity, StandardCharsets.UTF_8.name()));
+            msg.setReloginRequired(ReloginDetector.isNeedRelogin(verdict, msg.getBody()));
+            return msg;
+        }
+
+        msg.setReloginRequired(false);
+        try (InputStream in = new BufferedInputStream(entity.getContent(), PEEK_SIZE)) {
+            in.mark(PEEK_SIZE);
+            byte[] prefix = new byte[PEEK_SIZE];
+            int prefixLen = readFully(in, prefix);
+            if(0 == prefixLen) {
+                return msg;
+            }
+
+            if(ReloginDetector.isReloginBody(new String(prefix, 0, prefixLen, StandardCharsets.UTF_8))) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                body.write(prefix, 0, prefixLen);
+                copy(in, body);
+                msg.setBody(new String(body.toByteArray(), StandardCharsets.UTF_8));
+                msg.setReloginRequired(true);
+                return msg;
+            }
+
+            in.reset();
+            try {
+                msg.setDecoded(MAPPER.readValue(in, responseType));
+            } catch(JsonProcessingException e) {
+                // a body of an unexpected shape is answered the same way every time, it is not retried
+                msg.setDecodeError(e.getMessage());
+            }
+        }
+
+        return msg;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while(total < buffer.length) {
+            int read = in.read(buffer, total, buffer.length - total);
+            if(read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void copy(InputStream in, ByteArrayOutputStream out) throws IOException {
+        byte[] buffer = new byte[PEEK_SIZE];
+        int read;
+        while((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+
+/**
+ * Transport sending all requests with the Apache HttpAsyncClient. <br>
+ * <p>
+ * Blocking requests wait for the non-blocking one, at most until the request deadline or, without one,
+ * the request deadline of the controller; then the exchange is aborted. The response body is buffered
+ * by the IO threads before it is handed to the caller, so large responses are held in memory once.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 1, 2016
+ */
+public class NioHttpTransport implements ControllerTransport {
+
+    private final CookieStore cookieStore;
+
+    private final boolean compression;
+
+    private final long requestDeadline;
+
+    private final PoolingNHttpClientConnectionManager asyncConnManager;
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param The controller parameters
+     * @param cookieStore The store of the session cookies
+     * @throws GeneralSecurityException When the TLS context can not be created
+     * @throws IOException When the IO reactor can not be started
+     * @since SDNO 0.5
+     */
+    public NioHttpTransport(ControllerParam param, CookieStore cookieStore)
+            throws GeneralSecurityException, IOException {
+        this.cookieStore = cookieStore;
+        this.compression = param.isCompressionEnabled();
+        this.requestDeadline = param.getRequestDeadline();
+        asyncConnManager = ControllerTransportFactory.createAsyncConnManager(param);
+        httpAsyncClient = ControllerTransportFactory.createAsyncClient(asyncConnManager, cookieStore);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+        executeAsync(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(HttpResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        long deadlineNanos = RequestDeadline.getNanos(requestDeadline);
+        try {
+            return future.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch(TimeoutException e) {
+            request.abort();
+            throw new SocketTimeoutException("Request timed out: " + request.getRequestLine());
+        } catch(InterruptedException e) {
+            request.abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted: " + request.getRequestLine());
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new ClientProtocolException(e.getCause());
+        } catch(CancellationException e) {
+            throw new InterruptedIOException("Request cancelled: " + request.getRequestLine());
+        }
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
+        HttpResponse response = execute(request);
+        try {
+            return responseHandler.handleResponse(response);
+        } finally {
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+
+    @Override
+    public void executeAsync(HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+        ControllerTransportFactory.executeAsync(httpAsyncClient, compression, request, callback);
+    }
+
+    @Override
+    public CookieStore getCookieStore() {
+        return cookieStore;
+    }
+
+    @Override
+    public void closeIdleConnections(long idleMillis) {
+        asyncConnManager.closeExpiredConnections();
+        asyncConnManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return asyncConnManager.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpAsyncClient.close();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.exception.HttpCode;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking proxy class for AC Branch Controller. <br>
+ * <p>
+ * Requests are executed by the non-blocking client of OverlayVpnDriverSsoProxy, relogin and replay are
+ * chained on the returned future instead of holding the calling thread. Permits are taken without
+ * waiting, the nodes of the controller are resolved without blocking the caller, and a failover to a
+ * standby node runs on a dedicated executor, never on an I/O thread of the client. When the controller
+ * can not be resolved the status is -1; when the controller node is unavailable, the returned future
+ * completes exceptionally with a ServiceException.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Jul 21, 2016
+ */
+public class OverlayVpnDriverAsyncProxy implements IOverlayVpnDriverAsyncProxy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverlayVpnDriverAsyncProxy.class);
+
+    private static final int FAILOVER_THREAD_NUM = 4;
+
+    private static final ExecutorService FAILOVER_EXECUTOR = Executors.newFixedThreadPool(FAILOVER_THREAD_NUM, r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-async-failover");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile OverlayVpnDriverAsyncProxy uniqueInstance = null;
+
+    private OverlayVpnDriverAsyncProxy() {
+    }
+
+    /**
+     * Get synchronized instance. <br>
+     *
+     * @return synchronized instance
+     * @since SDNO 0.5
+     */
+    public static synchronized OverlayVpnDriverAsyncProxy getInstance() {
+        if(null == uniqueInstance) {
+            uniqueInstance = new OverlayVpnDriverAsyncProxy();
+        }
+        return uniqueInstance;
+    }
+
+    @Override
+    public CompletableFuture<HTTPReturnMessage> sendGetMsg(final String url, String body, final String ctlrUuid) {
+        return send(ctlrUuid, HttpGet.METHOD_NAME, url, acSSOLogin -> acSSOLogin.getAsync(url));
+    }
+
+    @Override
+    public CompletableFuture<HTTPReturnMessage> sendPostMsg(final String url, final String body,
+            final String ctlrUuid) {
+        return send(ctlrUuid, HttpPost.METHOD_NAME, url, acSSOLogin -> acSSOLogin.postAsync(url, body));
+    }
+
+    @Override
+    public CompletableFuture<HTTPReturnMessage> sendPutMsg(final String url, final String body,
+            final String ctlrUuid) {
+        return send(ctlrUuid, HttpPut.METHOD_NAME, url, acSSOLogin -> acSSOLogin.putAsync(url, body));
+    }
+
+    @Override
+    public CompletableFuture<HTTPReturnMessage> sendDeleteMsg(final String url, final String body,
+            final String ctlrUuid) {
+        return send(ctlrUuid, HttpDelete.METHOD_NAME, url, acSSOLogin -> acSSOLogin.deleteAsync(url, body));
+    }
+
+    private CompletableFuture<HTTPReturnMessage> send(final String ctlrUuid, final String method, final String url,
+            final Function<OverlayVpnDriverSsoProxy, CompletableFuture<HTTPReturnMessage>> request) {
+        final Long deadlineNanos = RequestDeadline.getNanos();
+        return ControllerProxyCache.getInstance().getGroupAsync(ctlrUuid).thenCompose(group -> {
+            if(null == group) {
+                HTTPReturnMessage msg = new HTTPReturnMessage();
+                msg.setStatus(HttpCode.ERR_FAILED);
+                return CompletableFuture.completedFuture(msg);
+            }
+
+            // the group may have been resolved on another thread
+            return withDeadline(deadlineNanos, () -> send(group, ctlrUuid, method, url, request));
+        });
+    }
+
+    private CompletableFuture<HTTPReturnMessage> send(final ControllerEndpointGroup group, final String ctlrUuid,
+            final String method, final String url,
+            final Function<OverlayVpnDriverSsoProxy, CompletableFuture<HTTPReturnMessage>> request) {
+        final ControllerEndpointGroup.Endpoint endpoint = group.select();
+        final ControllerEndpointGroup.Endpoint standby = group.selectOther(endpoint);
+        final Long deadlineNanos = RequestDeadline.getNanos();
+        return sendWithRelogin(group, endpoint, ctlrUuid, request).handle((rsp, e) -> {
+            if(null == standby || (null == e && !OverlayVpnDriverProxy.canFailOver(method, url, null, rsp))) {
+                return (null == e) ? CompletableFuture.completedFuture(rsp) : failed(e);
+            }
+
+            LOGGER.warn("Controller " + ctlrUuid + " node " + endpoint.getAddress() + " failed, send to "
+                    + standby.getAddress());
+            return CompletableFuture
+                    .supplyAsync(() -> withDeadline(deadlineNanos,
+                            () -> sendWithRelogin(group, standby, ctlrUuid, request)), FAILOVER_EXECUTOR)
+                    .thenCompose(Function.identity());
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<HTTPReturnMessage> sendWithRelogin(final ControllerEndpointGroup group,
+            final ControllerEndpointGroup.Endpoint endpoint, final String ctlrUuid,
+            final Function<OverlayVpnDriverSsoProxy, CompletableFuture<HTTPReturnMessage>> request) {
+        final OverlayVpnDriverSsoProxy acSSOLogin = endpoint.getProxy();
+        final ControllerGuard.Permit permit;
+        try {
+            RequestDeadline.check("Controller request");
+            permit =
+                    ControllerGuard.getInstance().tryAcquire(endpoint.getGuardKey(), acSSOLogin.getControllerParam());
+        } catch(ServiceException e) {
+            return failed(e);
+        }
+
+        final long requestNanos = System.nanoTime();
+        final Long deadlineNanos = RequestDeadline.getNanos();
+        acSSOLogin.lease();
+        CompletableFuture<HTTPReturnMessage> response = request.apply(acSSOLogin).thenCompose(rsp -> {
+            if(!OverlayVpnDriverProxy.isNeedRelogin(rsp)) {
+                return CompletableFuture.completedFuture(rsp);
+            }
+
+            LOGGER.info("Not Login, try to login.");
+            return acSSOLogin.reloginAsync(OverlayVpnDriverProxy.SSO_LOGIN, requestNanos).thenCompose(isLogin -> {
+                if(isLogin) {
+                    return withDeadline(deadlineNanos, () -> request.apply(acSSOLogin));
+                }
+                rsp.setStatus(HttpCode.ERR_FAILED);
+                ControllerProxyCache.getInstance().invalidate(ctlrUuid);
+                return CompletableFuture.completedFuture(rsp);
+            });
+        });
+        response.whenComplete((rsp, e) -> {
+            acSSOLogin.unlease();
+            permit.release(rsp);
+            group.onResult(endpoint, rsp);
+        });
+        return response;
+    }
+
+    private static CompletableFuture<HTTPReturnMessage> failed(Throwable e) {
+        CompletableFuture<HTTPReturnMessage> rejected = new CompletableFuture<HTTPReturnMessage>();
+        rejected.completeExceptionally(e);
+        return rejected;
+    }
+
+    private static CompletableFuture<HTTPReturnMessage> withDeadline(Long deadlineNanos,
+            Supplier<CompletableFuture<HTTPReturnMessage>> request) {
+        // the replay is sent from a client thread, so the deadline of the caller is carried over
+        Long previous = RequestDeadline.getNanos();
+        RequestDeadline.setNanos(deadlineNanos);
+        try {
+            return request.get();
+        } finally {
+            RequestDeadline.setNanos(previous);
+        }
+    }
+}
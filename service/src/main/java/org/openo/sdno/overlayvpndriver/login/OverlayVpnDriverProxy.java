@@ -16,30 +16,35 @@
 
 package org.openo.sdno.overlayvpndriver.login;
 
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.util.function.Function;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.codehaus.jackson.type.JavaType;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.exception.HttpCode;
-import org.openo.sdno.overlayvpn.esr.invdao.SdnControllerDao;
-import org.openo.sdno.overlayvpn.esr.model.SdnController;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
 import org.openo.sdno.util.http.HTTPReturnMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Proxy class for AC Branch Controller, providing restful and web socket interface. <br>
+ * <p>
+ * Requests go to the node selected by the ControllerEndpointGroup of the controller. When that node
+ * does not process a request, the request is sent once more to a standby node if this is safe.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 Jul 21, 2016
  */
 public class OverlayVpnDriverProxy implements IOverlayVpnDriverProxy {
 
-    private static final String SSO_LOGIN = "/sso/login";
-
-    private static final String SSO_REDIRECT = "ssoRedirect";
-
-    private static final String SSO_LOGOUT = "sso/logout";
+    static final String SSO_LOGIN = "/sso/login";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OverlayVpnDriverProxy.class);
 
@@ -68,26 +73,26 @@ public class OverlayVpnDriverProxy implements IOverlayVpnDriverProxy {
      * @param body The message body
      * @param ctlrUuid The controller UUID
      * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
      * @since SDNO 0.5
      */
     @Override
-    public HTTPReturnMessage sendGetMsg(String url, String body, String ctlrUuid) {
-        OverlayVpnDriverSsoProxy acSSOLogin = createACSSOProxy(ctlrUuid);
-        if(null == acSSOLogin) {
-            return new HTTPReturnMessage();
-        }
-
-        HTTPReturnMessage get = acSSOLogin.get(url);
-        if(isNeedRelogin(get)) {
-            LOGGER.info("Not Login, try to login.");
-            if(acSSOLogin.login(SSO_LOGIN)) {
-                get = acSSOLogin.get(url);
-            } else {
-                get.setStatus(HttpCode.ERR_FAILED);
-            }
-        }
+    public HTTPReturnMessage sendGetMsg(String url, String body, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpGet.METHOD_NAME, url, null, acSSOLogin -> acSSOLogin.get(url));
+    }
 
-        return get;
+    /**
+     * Send get restful request, decoding the JSON response directly from the response stream.<br>
+     *
+     * @param url The restful URL path
+     * @param ctlrUuid The controller UUID
+     * @param responseType type to decode the response body into
+     * @return The object of HTTPReturnMessage, a DecodedReturnMessage when the body was decoded
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage sendGetMsg(String url, String ctlrUuid, JavaType responseType) throws ServiceException {
+        return send(ctlrUuid, HttpGet.METHOD_NAME, url, null, acSSOLogin -> acSSOLogin.get(url, responseType));
     }
 
     /**
@@ -97,26 +102,26 @@ public class OverlayVpnDriverProxy implements IOverlayVpnDriverProxy {
      * @param body The message body
      * @param ctlrUuid The controller UUID
      * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
      * @since SDNO 0.5
      */
     @Override
-    public HTTPReturnMessage sendPostMsg(String url, String body, String ctlrUuid) {
-        OverlayVpnDriverSsoProxy acSSOLogin = createACSSOProxy(ctlrUuid);
-        if(null == acSSOLogin) {
-            return new HTTPReturnMessage();
-        }
-
-        HTTPReturnMessage post = acSSOLogin.post(url, body);
-        if(isNeedRelogin(post)) {
-            LOGGER.info("Not Login, try to login.");
-            if(acSSOLogin.login(SSO_LOGIN)) {
-                post = acSSOLogin.post(url, body);
-            } else {
-                post.setStatus(HttpCode.ERR_FAILED);
-            }
-        }
+    public HTTPReturnMessage sendPostMsg(String url, String body, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpPost.METHOD_NAME, url, null, acSSOLogin -> acSSOLogin.post(url, body));
+    }
 
-        return post;
+    /**
+     * Send post restful request, streaming the request entity.<br>
+     *
+     * @param url The restful URL path
+     * @param entity The request entity, e.g. a JsonStreamEntity
+     * @param ctlrUuid The controller UUID
+     * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage sendPostMsg(String url, HttpEntity entity, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpPost.METHOD_NAME, url, entity, acSSOLogin -> acSSOLogin.post(url, entity));
     }
 
     /**
@@ -126,26 +131,26 @@ public class OverlayVpnDriverProxy implements IOverlayVpnDriverProxy {
      * @param body The message body
      * @param ctlrUuid The controller UUID
      * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
      * @since SDNO 0.5
      */
     @Override
-    public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) {
-        OverlayVpnDriverSsoProxy acSSOLogin = createACSSOProxy(ctlrUuid);
-        if(null == acSSOLogin) {
-            return new HTTPReturnMessage();
-        }
-
-        HTTPReturnMessage put = acSSOLogin.put(url, body);
-        if(isNeedRelogin(put)) {
-            LOGGER.info("Not Login, try to login.");
-            if(acSSOLogin.login(SSO_LOGIN)) {
-                put = acSSOLogin.put(url, body);
-            } else {
-                put.setStatus(HttpCode.ERR_FAILED);
-            }
-        }
+    public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpPut.METHOD_NAME, url, null, acSSOLogin -> acSSOLogin.put(url, body));
+    }
 
-        return put;
+    /**
+     * Send put restful request, streaming the request entity.<br>
+     *
+     * @param url The restful URL path
+     * @param entity The request entity, e.g. a JsonStreamEntity
+     * @param ctlrUuid The controller UUID
+     * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage sendPutMsg(String url, HttpEntity entity, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpPut.METHOD_NAME, url, entity, acSSOLogin -> acSSOLogin.put(url, entity));
     }
 
     /**
@@ -155,53 +160,114 @@ public class OverlayVpnDriverProxy implements IOverlayVpnDriverProxy {
      * @param body The message body
      * @param ctlrUuid The controller UUID
      * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
      * @since SDNO 0.5
      */
     @Override
-    public HTTPReturnMessage sendDeleteMsg(String url, String body, String ctlrUuid) {
-        OverlayVpnDriverSsoProxy acSSOLogin = createACSSOProxy(ctlrUuid);
-        if(null == acSSOLogin) {
+    public HTTPReturnMessage sendDeleteMsg(String url, String body, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpDelete.METHOD_NAME, url, null, acSSOLogin -> acSSOLogin.delete(url, body));
+    }
+
+    /**
+     * Send delete restful request, streaming the request entity.<br>
+     *
+     * @param url The restful URL path
+     * @param entity The request entity, e.g. a JsonStreamEntity
+     * @param ctlrUuid The controller UUID
+     * @return The object of HTTPReturnMessage
+     * @throws ServiceException When the controller is unavailable or the request deadline passed
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage sendDeleteMsg(String url, HttpEntity entity, String ctlrUuid) throws ServiceException {
+        return send(ctlrUuid, HttpDelete.METHOD_NAME, url, entity,
+                acSSOLogin -> acSSOLogin.delete(url, entity));
+    }
+
+    private HTTPReturnMessage send(String ctlrUuid, String method, String url, HttpEntity entity,
+            Function<OverlayVpnDriverSsoProxy, HTTPReturnMessage> request) throws ServiceException {
+        RequestDeadline.check("Controller request");
+        ControllerEndpointGroup group = getEndpointGroup(ctlrUuid);
+        if(null == group) {
             return new HTTPReturnMessage();
         }
 
-        HTTPReturnMessage delete = acSSOLogin.delete(url, body);
-        if(isNeedRelogin(delete)) {
-            LOGGER.info("Not Login, try to login.");
-            if(acSSOLogin.login(SSO_LOGIN)) {
-                delete = acSSOLogin.delete(url, body);
-            } else {
-                delete.setStatus(HttpCode.ERR_FAILED);
+        ControllerEndpointGroup.Endpoint endpoint = group.select();
+        ControllerEndpointGroup.Endpoint standby = group.selectOther(endpoint);
+        HTTPReturnMessage response;
+        try {
+            response = send(ctlrUuid, group, endpoint, request);
+        } catch(ServiceException e) {
+            if(null == standby) {
+                throw e;
             }
+            LOGGER.warn("Controller " + ctlrUuid + " node " + endpoint.getAddress() + " rejected, send to "
+                    + standby.getAddress());
+            return send(ctlrUuid, group, standby, request);
         }
 
-        return delete;
-    }
+        if(null != standby && canFailOver(method, url, entity, response)) {
+            LOGGER.warn("Controller " + ctlrUuid + " node " + endpoint.getAddress() + " failed, send to "
+                    + standby.getAddress());
+            RequestDeadline.check("Controller request");
+            response = send(ctlrUuid, group, standby, request);
+        }
 
-    private boolean isNeedRelogin(HTTPReturnMessage httpRspMsg) {
-        return isRedirectResponse(httpRspMsg) || isLogoutResponse(httpRspMsg);
+        return response;
     }
 
-    private boolean isLogoutResponse(HTTPReturnMessage httpRspMsg) {
-        return (null != httpRspMsg.getBody()) && (httpRspMsg.getBody().indexOf(SSO_LOGOUT) > 0);
-    }
+    private HTTPReturnMessage send(String ctlrUuid, ControllerEndpointGroup group,
+            ControllerEndpointGroup.Endpoint endpoint, Function<OverlayVpnDriverSsoProxy, HTTPReturnMessage> request)
+            throws ServiceException {
+        OverlayVpnDriverSsoProxy acSSOLogin = endpoint.getProxy();
+        ControllerGuard.Permit permit =
+                ControllerGuard.getInstance().tryAcquire(endpoint.getGuardKey(), acSSOLogin.getControllerParam());
+        HTTPReturnMessage response = null;
+        acSSOLogin.lease();
+        try {
+            long requestNanos = System.nanoTime();
+            response = request.apply(acSSOLogin);
+            if(isNeedRelogin(response)) {
+                LOGGER.info("Not Login, try to login.");
+                if(acSSOLogin.relogin(SSO_LOGIN, requestNanos)) {
+                    response = request.apply(acSSOLogin);
+                } else {
+                    response.setStatus(HttpCode.ERR_FAILED);
+                    ControllerProxyCache.getInstance().invalidate(ctlrUuid);
+                }
+            }
+        } finally {
+            acSSOLogin.unlease();
+            permit.release(response);
+            group.onResult(endpoint, response);
+        }
 
-    private boolean isRedirectResponse(HTTPReturnMessage httpRspMsg) {
-        return (null != httpRspMsg.getBody()) && (httpRspMsg.getBody().indexOf(SSO_REDIRECT) > 0);
+        return response;
     }
 
-    private OverlayVpnDriverSsoProxy createACSSOProxy(String ctlrUuid) {
-        OverlayVpnDriverSsoProxy ssoProxy = null;
+    /**
+     * Check whether a request that failed on one node may be sent to another node: the node did not
+     * process it, and the request was never sent or sending it again cannot apply a change twice.
+     */
+    static boolean canFailOver(String method, String url, HttpEntity entity, HTTPReturnMessage response) {
+        if(null == response || !ControllerEndpointGroup.isNodeFailure(response)
+                || (null != entity && !entity.isRepeatable())) {
+            return false;
+        }
 
-        try {
-            SdnControllerDao controllerDao = new SdnControllerDao();
-            SdnController sdnController = controllerDao.querySdnControllerById(ctlrUuid);
-            URL url = new URL(sdnController.getUrl());
-            ssoProxy = OverlayVpnDriverSsoProxy.getInstance(url.getHost(), String.valueOf(url.getPort()),
-                    sdnController.getUserName(), sdnController.getPassword());
-        } catch(ServiceException | MalformedURLException e) {
-            LOGGER.error("create OverlayVpnDriverSsoProxy faied", e);
+        if(HttpStatus.SC_SERVICE_UNAVAILABLE == response.getStatus()
+                || (response instanceof ControllerReturnMessage && ((ControllerReturnMessage)response).isNotSent())) {
+            return true;
         }
 
-        return ssoProxy;
+        int queryStart = url.indexOf('?');
+        return RetryPolicy.isIdempotent(method, (queryStart < 0) ? url : url.substring(0, queryStart));
+    }
+
+    static boolean isNeedRelogin(HTTPReturnMessage httpRspMsg) {
+        return ReloginDetector.isNeedRelogin(httpRspMsg);
+    }
+
+    static ControllerEndpointGroup getEndpointGroup(String ctlrUuid) {
+        return ControllerProxyCache.getInstance().getGroup(ctlrUuid);
     }
 }
@@ -17,48 +17,57 @@
 package org.openo.sdno.overlayvpndriver.login;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.security.cert.X509Certificate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import org.apache.commons.collections.MapUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.ParseException;
 import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpClient;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.ssl.AllowAllHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.client.LaxRedirectStrategy;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
+import org.codehaus.jackson.type.JavaType;
 import org.openo.sdno.exception.ErrorCode;
 import org.openo.sdno.framework.container.util.JsonUtil;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParamReader;
 import org.openo.sdno.overlayvpndriver.util.consts.ControllerUrlConst;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
 import org.openo.sdno.util.http.HTTPReturnMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,21 +77,99 @@ import net.sf.json.JSONObject;
 
 /**
  * Class for login and sending restful requests to AC Branch. <br>
+ * <p>
+ * The requests are sent by the ControllerTransport selected by the transport controller parameter.
+ * </p>
  *
  * @author
  * @version SDNO 0.5 2016-6-22
  */
 public class OverlayVpnDriverSsoProxy {
 
-    private static final String SSLCONTEST_TLS = "TLSV1.2";
-
     private static final String APPLICATION_JSON = "application/json";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OverlayVpnDriverSsoProxy.class);
 
     private static final int FAILED = -1;
 
-    private HttpClient httpClient;
+    private static final int LOGIN_THREAD_NUM = 4;
+
+    private static final ExecutorService LOGIN_EXECUTOR = Executors.newFixedThreadPool(LOGIN_THREAD_NUM, r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-sso-login");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ScheduledExecutorService POOL_REAPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-pool-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int HEDGE_THREAD_NUM = 16;
+
+    /**
+     * Only triggers hedges, retries of non-blocking requests and the end of their wait for a slot.
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final ExecutorService HEDGE_EXECUTOR = new ThreadPoolExecutor(0, HEDGE_THREAD_NUM, 60,
+            TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), r -> {
+                Thread thread = new Thread(r, "overlayvpndriver-hedge");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private ControllerTransport transport;
+
+    private ScheduledFuture<?> reaperTask;
+
+    private final ControllerParam controllerParam;
+
+    private final RetryPolicy retryPolicy;
+
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+
+    private final ContentCompression contentCompression;
+
+    private final HedgingPolicy hedgingPolicy;
+
+    /**
+     * Session cookies shared by the blocking and the non-blocking client, so a login done by one is
+     * seen by the other.
+     */
+    private final CookieStore cookieStore = new BasicCookieStore();
+
+    /**
+     * The login handshake in progress, shared by every request that needs to relogin meanwhile.
+     */
+    private final AtomicReference<CompletableFuture<Boolean>> loginInProgress =
+            new AtomicReference<CompletableFuture<Boolean>>();
+
+    /**
+     * System.nanoTime() of the last successful login.
+     */
+    private volatile long lastLoginNanos = System.nanoTime();
+
+    private volatile boolean loggedIn = false;
+
+    private final SsoSessionMetrics sessionMetrics = new SsoSessionMetrics();
+
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    private volatile boolean closed = false;
+
+    private volatile boolean retired = false;
+
+    private final AtomicInteger leases = new AtomicInteger();
 
     private String acIp;
 
@@ -92,42 +179,25 @@ public class OverlayVpnDriverSsoProxy {
 
     private String acLoginPassword = null;
 
-    private static Map<String, OverlayVpnDriverSsoProxy> instanceCache =
-            new HashMap<String, OverlayVpnDriverSsoProxy>();
-
-    private OverlayVpnDriverSsoProxy(final String acIp, final String acPort, final String acLoginName,
+    OverlayVpnDriverSsoProxy(final String acIp, final String acPort, final String acLoginName,
             String acLoginPassword) {
         this.acIp = acIp;
         this.acPort = acPort;
         this.acLoginName = acLoginName;
         this.acLoginPassword = acLoginPassword;
+        this.controllerParam = ControllerParamReader.getControllerParam(acIp);
+        this.retryPolicy = new RetryPolicy(controllerParam);
+        this.concurrencyLimiter = new AimdConcurrencyLimiter(controllerParam);
+        this.contentCompression = new ContentCompression(controllerParam);
+        this.hedgingPolicy = new HedgingPolicy(controllerParam);
         try {
-            SSLContext sslcontext = SSLContext.getInstance(SSLCONTEST_TLS);
-            sslcontext.init(null, new TrustManager[] {new X509TrustManager() {
-
-                @Override
-                public X509Certificate[] getAcceptedIssuers() {
-                    return new X509Certificate[0];
-                }
-
-                @Override
-                public void checkClientTrusted(java.security.cert.X509Certificate[] certs, String authType) {
-                    // unimplemented
-                }
-
-                @Override
-                public void checkServerTrusted(java.security.cert.X509Certificate[] certs, String authType) {
-                    // unimplemented
-                }
-            }}, new java.security.SecureRandom());
+            transport = ControllerTransportFactory.create(controllerParam, cookieStore);
 
-            X509HostnameVerifier hostnameVerifier = new AllowAllHostnameVerifier();
-            Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
-                    .register("https", new SSLConnectionSocketFactory(sslcontext, hostnameVerifier)).build();
-            HttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+            reaperTask = POOL_REAPER.scheduleWithFixedDelay(this::reapConnections,
+                    controllerParam.getIdleReaperInterval(), controllerParam.getIdleReaperInterval(),
+                    TimeUnit.MILLISECONDS);
 
-            httpClient = HttpClients.custom().setConnectionManager(connManager)
-                    .setRedirectStrategy(new LaxRedirectStrategy()).build();
+            TlsContextFactory.getInstance().preHandshake(acIp, Integer.parseInt(acPort));
         } catch(Exception e) {
             LOGGER.error("ACSSOProxy: throw exception.", e);
         }
@@ -145,19 +215,126 @@ public class OverlayVpnDriverSsoProxy {
      */
     public static OverlayVpnDriverSsoProxy getInstance(final String acIp, final String acPort, final String acLoginName,
             String acLoginPassword) {
-        synchronized(instanceCache) {
-            String acSsoProxyUniqueId = acIp + acPort + acLoginName + acLoginPassword;
-            if(instanceCache.get(acSsoProxyUniqueId) != null) {
-                return instanceCache.get(acSsoProxyUniqueId);
-            } else {
-                OverlayVpnDriverSsoProxy proxy =
-                        new OverlayVpnDriverSsoProxy(acIp, acPort, acLoginName, acLoginPassword);
-                instanceCache.put(acSsoProxyUniqueId, proxy);
-                return proxy;
+        return SsoProxyRegistry.getInstance().get(acIp, acPort, acLoginName, acLoginPassword);
+    }
+
+    /**
+     * Get all cached instances. <br>
+     *
+     * @return snapshot of the cached instances
+     * @since SDNO 0.5
+     */
+    static Collection<OverlayVpnDriverSsoProxy> getInstances() {
+        return SsoProxyRegistry.getInstance().getAll();
+    }
+
+    /**
+     * Close the connection pools of this proxy. <br>
+     * <p>
+     * Called when the proxy is evicted from the SsoProxyRegistry, a closed proxy must not be used
+     * anymore.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    synchronized void close() {
+        if(closed) {
+            return;
+        }
+
+        closed = true;
+        if(null != reaperTask) {
+            reaperTask.cancel(false);
+        }
+        try {
+            if(null != transport) {
+                transport.close();
             }
+        } catch(IOException e) {
+            LOGGER.warn("Close controller proxy failed.", e);
+        }
+    }
+
+    /**
+     * Close the proxy once no request holds a lease on it any more. <br>
+     * <p>
+     * Called when the proxy is replaced or evicted from the SsoProxyRegistry, so that the requests in
+     * flight on it are completed.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    void retire() {
+        retired = true;
+        if(0 == leases.get()) {
+            close();
         }
     }
 
+    /**
+     * Hold the proxy open for one request, a retired proxy is closed when its last lease is returned.
+     */
+    void lease() {
+        leases.incrementAndGet();
+    }
+
+    void unlease() {
+        if(0 == leases.decrementAndGet() && retired) {
+            close();
+        }
+    }
+
+    /**
+     * Close expired connections and connections idle for longer than validateAfterInactivity. <br>
+     * <p>
+     * HttpClient 4.3 can not validate a pooled connection only after a period of inactivity, closing
+     * such connections in background gives the same guarantee without a stale check on every lease.
+     * </p>
+     */
+    private void reapConnections() {
+        try {
+            transport.closeIdleConnections(controllerParam.getValidateAfterInactivity());
+        } catch(RuntimeException e) {
+            LOGGER.warn("Reap connections failed.", e);
+        }
+    }
+
+    /**
+     * Get statistics of the connection pools. <br>
+     *
+     * @return leased, available, pending and max connections
+     * @since SDNO 0.5
+     */
+    public PoolStats getPoolStats() {
+        return (null == transport) ? null : transport.getPoolStats();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return address of the controller node as "ip:port"
+     */
+    String getAddress() {
+        return acIp + ':' + acPort;
+    }
+
+    boolean hasPassword(String password) {
+        return (null == acLoginPassword) ? (null == password) : acLoginPassword.equals(password);
+    }
+
+    /**
+     * Record that this proxy is used by a request, idle proxies are evicted from the registry.
+     */
+    void markUsed() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    long getIdleNanos() {
+        return System.nanoTime() - lastUsedNanos;
+    }
+
     /**
      * Login AC Branch. <br>
      *
@@ -180,7 +357,7 @@ public class OverlayVpnDriverSsoProxy {
             request.addHeader("Content-Type", APPLICATION_JSON);
 
             LOGGER.info(request.toString());
-            HttpResponse resp = httpClient.execute(request);
+            HttpResponse resp = transport.execute(request);
             LOGGER.info(resp.toString());
 
             String respContent = EntityUtils.toString(resp.getEntity());
@@ -204,7 +381,7 @@ public class OverlayVpnDriverSsoProxy {
             loginPost.setEntity(new UrlEncodedFormEntity(urlParameters));
 
             LOGGER.info(loginPost.getURI().toString());
-            resp = httpClient.execute(loginPost);
+            resp = transport.execute(loginPost);
             LOGGER.info(resp.toString());
 
             respContent = EntityUtils.toString(resp.getEntity(), HTTP.UTF_8);
@@ -276,7 +453,7 @@ public class OverlayVpnDriverSsoProxy {
             request.addHeader("X-External-Redirect", "true");
 
             LOGGER.info(request.toString());
-            HttpResponse resp = httpClient.execute(request);
+            HttpResponse resp = transport.execute(request);
             LOGGER.info(resp.toString());
 
             String respContent = null;
@@ -297,6 +474,75 @@ public class OverlayVpnDriverSsoProxy {
         return false;
     }
 
+    /**
+     * Probe the current session, which also keeps it alive on the controller. <br>
+     * <p>
+     * The probe is sent directly on the transport, it is neither limited, hedged nor retried and its
+     * latency is not sampled by the concurrency limiter.
+     * </p>
+     *
+     * @return true if the session is still valid
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("deprecation")
+    public boolean ping() {
+        if(!isParamValide() || null == transport) {
+            return false;
+        }
+
+        HttpGet request = new HttpGet(getHttpsUrl() + ControllerUrlConst.EXTERNAL_REDIRECT);
+        request.addHeader("Content-Type", APPLICATION_JSON);
+        request.addHeader("Accept", APPLICATION_JSON);
+        try {
+            HttpResponse resp = transport.execute(request);
+            ReloginDetector.Verdict verdict = ReloginDetector.classify(resp);
+            String body = (null == resp.getEntity()) ? null : EntityUtils.toString(resp.getEntity(), HTTP.UTF_8);
+            this.release(resp);
+            return resp.getStatusLine().getStatusCode() == HttpStatus.SC_OK
+                    && !ReloginDetector.isNeedRelogin(verdict, body);
+        } catch(IOException e) {
+            LOGGER.warn("Ping failed: " + this, e);
+        } catch(ParseException e) {
+            LOGGER.warn("Ping failed: " + this, e);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if a login has succeeded at least once
+     */
+    boolean hasLoggedIn() {
+        return loggedIn;
+    }
+
+    /**
+     * @return milliseconds since the last successful login
+     */
+    long getSessionAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastLoginNanos);
+    }
+
+    /**
+     * @return communication parameters of this controller
+     */
+    public ControllerParam getControllerParam() {
+        return controllerParam;
+    }
+
+    /**
+     * @return adaptive concurrency limiter of this controller node
+     */
+    public AimdConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return SSO session metrics of this controller
+     */
+    public SsoSessionMetrics getSessionMetrics() {
+        return sessionMetrics;
+    }
+
     /**
      * Send post restful request. <br>
      *
@@ -330,7 +576,118 @@ public class OverlayVpnDriverSsoProxy {
      */
     public HTTPReturnMessage get(final String restUrl) {
         LOGGER.info("Get Request url: " + restUrl);
-        return commonRequest(new HttpGet(this.getHttpsUrl() + restUrl));
+        return hedgedGet(this.getHttpsUrl() + restUrl, request -> commonRequest(request));
+    }
+
+    /**
+     * Send get restful request, decoding the JSON response directly from the response stream. <br>
+     *
+     * @param restUrl restful URL path
+     * @param responseType type to decode the response body into
+     * @return DecodedReturnMessage when the response was decoded, else the HTTPReturnMessage with body
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage get(final String restUrl, final JavaType responseType) {
+        LOGGER.info("Get Request url: " + restUrl);
+        return hedgedGet(this.getHttpsUrl() + restUrl,
+                request -> commonRequest(request, new JsonStreamResponseHandler(responseType)));
+    }
+
+    /**
+     * Send a GET request, hedged by a second attempt on another pooled connection when the first one
+     * has not answered within the hedging delay. The first answer is returned and the other attempt is
+     * aborted; node failures do not count as an answer, so the other attempt is awaited then. The
+     * scheduler only triggers the hedge, which is sent by a bounded executor; when that executor or the
+     * concurrency limit of this node has no room left, the request is not hedged.
+     */
+    private HTTPReturnMessage hedgedGet(final String url, final Function<HttpGet, HTTPReturnMessage> sender) {
+        if(!hedgingPolicy.isEnabled()) {
+            return sender.apply(new HttpGet(url));
+        }
+
+        final HttpGet primary = new HttpGet(url);
+        final AtomicReference<HTTPReturnMessage> winner = new AtomicReference<HTTPReturnMessage>();
+        final AtomicReference<HttpGet> hedgeRequest = new AtomicReference<HttpGet>();
+        final CompletableFuture<HTTPReturnMessage> hedgeResponse = new CompletableFuture<HTTPReturnMessage>();
+
+        ScheduledFuture<?> hedgeTask = null;
+        long delayMillis = hedgingPolicy.getDelayMillis();
+        if(delayMillis >= 0 && RequestDeadline.bound(Long.MAX_VALUE) > delayMillis) {
+            final Long deadlineNanos = RequestDeadline.getNanos();
+            hedgeTask = SCHEDULER.schedule(() -> {
+                if(null != winner.get() || concurrencyLimiter.getInFlight() >= concurrencyLimiter.getLimit()) {
+                    hedgeResponse.complete(null);
+                    return;
+                }
+                try {
+                    HEDGE_EXECUTOR.execute(() -> sendHedge(new HedgeGet(url), sender, deadlineNanos, delayMillis,
+                            primary, winner, hedgeRequest, hedgeResponse));
+                } catch(RejectedExecutionException e) {
+                    LOGGER.info("Hedge executor is busy, request " + primary.getRequestLine() + " not hedged.");
+                    hedgeResponse.complete(null);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        HTTPReturnMessage response = timedGet(primary, sender);
+        if(null == hedgeTask || hedgeTask.cancel(false)) {
+            return response;
+        }
+
+        if(isAnswered(response)) {
+            if(winner.compareAndSet(null, response)) {
+                HttpGet request = hedgeRequest.get();
+                if(null != request) {
+                    request.abort();
+                }
+                return response;
+            }
+            return winner.get();
+        }
+
+        try {
+            hedgeResponse.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            LOGGER.warn("Hedge request failed.", e);
+        }
+        HTTPReturnMessage hedged = winner.get();
+        return null != hedged ? hedged : response;
+    }
+
+    private void sendHedge(HttpGet request, Function<HttpGet, HTTPReturnMessage> sender, Long deadlineNanos,
+            long delayMillis, HttpGet primary, AtomicReference<HTTPReturnMessage> winner,
+            AtomicReference<HttpGet> hedgeRequest, CompletableFuture<HTTPReturnMessage> hedgeResponse) {
+        HTTPReturnMessage response = null;
+        RequestDeadline.setNanos(deadlineNanos);
+        try {
+            hedgeRequest.set(request);
+            if(null == winner.get()) {
+                LOGGER.info("Hedge request " + request.getRequestLine() + " after " + delayMillis + " ms.");
+                response = timedGet(request, sender);
+                if(isAnswered(response) && winner.compareAndSet(null, response)) {
+                    primary.abort();
+                }
+            }
+        } finally {
+            RequestDeadline.clear();
+            hedgeResponse.complete(response);
+        }
+    }
+
+    private HTTPReturnMessage timedGet(HttpGet request, Function<HttpGet, HTTPReturnMessage> sender) {
+        long startNanos = System.nanoTime();
+        HTTPReturnMessage response = sender.apply(request);
+        if(!request.isAborted() && isAnswered(response)) {
+            hedgingPolicy.record(System.nanoTime() - startNanos);
+        }
+        return response;
+    }
+
+    private static boolean isAnswered(HTTPReturnMessage response) {
+        return null != response && !ControllerEndpointGroup.isNodeFailure(response)
+                && AimdConcurrencyLimiter.SC_TOO_MANY_REQUESTS != response.getStatus();
     }
 
     /**
@@ -374,9 +731,53 @@ public class OverlayVpnDriverSsoProxy {
         return commonRequest(httpDelete);
     }
 
+    /**
+     * Send post restful request with the given request entity. <br>
+     *
+     * @param restUrl restful URL path
+     * @param entity request entity, e.g. a JsonStreamEntity
+     * @return The object of HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage post(final String restUrl, final HttpEntity entity) {
+        LOGGER.info("Post Request url: " + restUrl);
+        HttpPost httpPost = new HttpPost(this.getHttpsUrl() + restUrl);
+        httpPost.setEntity(entity);
+        return commonRequest(httpPost);
+    }
+
+    /**
+     * Send put restful request with the given request entity. <br>
+     *
+     * @param restUrl restful URL path
+     * @param entity request entity, e.g. a JsonStreamEntity
+     * @return The object of HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage put(final String restUrl, final HttpEntity entity) {
+        HttpPut httpPut = new HttpPut(this.getHttpsUrl() + restUrl);
+        httpPut.setEntity(entity);
+        return commonRequest(httpPut);
+    }
+
+    /**
+     * Send delete restful request with the given request entity. <br>
+     *
+     * @param restUrl restful URL path
+     * @param entity request entity, e.g. a JsonStreamEntity
+     * @return The object of HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    public HTTPReturnMessage delete(final String restUrl, final HttpEntity entity) {
+        LOGGER.info("Delete Request url for AC: " + restUrl);
+        HttpDeleteWithBody httpDelete = new HttpDeleteWithBody(this.getHttpsUrl() + restUrl);
+        httpDelete.setEntity(entity);
+        return commonRequest(httpDelete);
+    }
+
     @SuppressWarnings("deprecation")
     private HTTPReturnMessage commonRequest(HttpRequestBase requestBase) {
-        HTTPReturnMessage msg = new HTTPReturnMessage();
+        ControllerReturnMessage msg = new ControllerReturnMessage();
         msg.setStatus(FAILED);
         if(!isParamValide()) {
             LOGGER.warn("AC Login commonRequest is inValide, Login failed.");
@@ -387,22 +788,24 @@ public class OverlayVpnDriverSsoProxy {
         requestBase.addHeader("Accept", APPLICATION_JSON);
 
         try {
-            LOGGER.info(requestBase.toString());
-            HttpResponse resp = httpClient.execute(requestBase);
-            LOGGER.info(resp.toString());
-
-            String respContent = EntityUtils.toString(resp.getEntity(), HTTP.UTF_8);
-            msg.setBody(respContent);
-            msg.setStatus(resp.getStatusLine().getStatusCode());
-            this.release(resp);
-        } catch(UnsupportedEncodingException e) {
-            LOGGER.warn("Do Post Request Failed.", e);
-        } catch(ClientProtocolException e) {
+            return executeCompressed(requestBase, () -> {
+                LOGGER.info(requestBase.toString());
+                HttpResponse resp = transport.execute(requestBase);
+                LOGGER.info(resp.toString());
+
+                ReloginDetector.Verdict verdict = ReloginDetector.classify(resp);
+                ControllerReturnMessage rspMsg = new ControllerReturnMessage();
+                rspMsg.setBody(EntityUtils.toString(resp.getEntity(), HTTP.UTF_8));
+                rspMsg.setStatus(resp.getStatusLine().getStatusCode());
+                rspMsg.setReloginRequired(ReloginDetector.isNeedRelogin(verdict, rspMsg.getBody()));
+                this.release(resp);
+                return rspMsg;
+            });
+        } catch(IOException e) {
             LOGGER.warn("Do Post Request Failed.", e);
+            msg.setNotSent(RetryPolicy.isNotSent(e));
         } catch(ParseException e) {
             LOGGER.warn("Do Post Request Failed.", e);
-        } catch(IOException e) {
-            LOGGER.warn("Do Post Request Failed.", e);
         } catch(IllegalStateException e) {
             LOGGER.warn("Do Post Request Failed.", e);
         }
@@ -410,6 +813,452 @@ public class OverlayVpnDriverSsoProxy {
         return msg;
     }
 
+    private HTTPReturnMessage commonRequest(HttpRequestBase requestBase,
+            ResponseHandler<HTTPReturnMessage> responseHandler) {
+        if(!isParamValide()) {
+            LOGGER.warn("AC Login commonRequest is inValide, Login failed.");
+            HTTPReturnMessage msg = new HTTPReturnMessage();
+            msg.setStatus(FAILED);
+            return msg;
+        }
+
+        requestBase.addHeader("Content-Type", APPLICATION_JSON);
+        requestBase.addHeader("Accept", APPLICATION_JSON);
+
+        ControllerReturnMessage msg = new ControllerReturnMessage();
+        msg.setStatus(FAILED);
+        try {
+            return executeCompressed(requestBase, () -> {
+                LOGGER.info(requestBase.toString());
+                return transport.execute(requestBase, responseHandler);
+            });
+        } catch(IOException e) {
+            LOGGER.warn("Do Request Failed.", e);
+            msg.setNotSent(RetryPolicy.isNotSent(e));
+        } catch(IllegalStateException e) {
+            LOGGER.warn("Do Request Failed.", e);
+        }
+
+        return msg;
+    }
+
+    /**
+     * Execute the request with a compressed body if it is large enough. When the controller rejects the
+     * compressed body with 415, the request is sent again uncompressed.
+     */
+    private HTTPReturnMessage executeCompressed(HttpRequestBase requestBase, RequestAttempt attempt)
+            throws IOException {
+        if(!(requestBase instanceof HttpEntityEnclosingRequestBase)) {
+            return executeWithRetry(requestBase, attempt);
+        }
+
+        HttpEntityEnclosingRequestBase entityRequest = (HttpEntityEnclosingRequestBase)requestBase;
+        HttpEntity entity = entityRequest.getEntity();
+        HttpEntity compressed = contentCompression.compress(entity);
+        if(compressed == entity) {
+            return executeWithRetry(requestBase, attempt);
+        }
+
+        entityRequest.setEntity(compressed);
+        HTTPReturnMessage response = executeWithRetry(requestBase, attempt);
+        if(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE != response.getStatus()) {
+            return response;
+        }
+
+        LOGGER.warn("Controller " + getAddress() + " does not accept compressed requests, send uncompressed.");
+        contentCompression.rejectRequestCompression();
+        entityRequest.setEntity(entity);
+        requestBase.reset();
+        return executeWithRetry(requestBase, attempt);
+    }
+
+    /**
+     * Execute the request, retrying a failed attempt after a backoff within the deadline. Every attempt
+     * takes its own slot of the concurrency limit, the slot is released before the backoff so that the
+     * backoff neither holds a slot nor counts as latency of the controller.
+     */
+    private HTTPReturnMessage executeWithRetry(HttpRequestBase requestBase, RequestAttempt attempt)
+            throws IOException {
+        long deadlineNanos = RequestDeadline.getNanos(controllerParam.getRequestDeadline());
+        for(int attemptCount = 1;; attemptCount++) {
+            try {
+                return executeLimited(requestBase, attempt, deadlineNanos);
+            } catch(IOException e) {
+                if(requestBase.isAborted() || !retryPolicy.isRetryable(requestBase, e, attemptCount)) {
+                    throw e;
+                }
+
+                long backoffMillis = retryPolicy.getBackoffMillis(attemptCount, deadlineNanos);
+                if(backoffMillis < 0) {
+                    throw e;
+                }
+
+                LOGGER.warn("Request " + requestBase.getRequestLine() + " failed, retry in " + backoffMillis + " ms.",
+                        e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch(InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                requestBase.reset();
+            }
+        }
+    }
+
+    /**
+     * Execute one attempt within the adaptive concurrency limit of this controller node. A request over
+     * the limit waits for a slot up to its deadline, like it waited for a pooled connection before; only a
+     * request that gets no slot by then is not sent and answered with status 429. A hedge request never
+     * waits, it is only sent when a slot is free right away.
+     */
+    private HTTPReturnMessage executeLimited(HttpRequestBase requestBase, RequestAttempt attempt,
+            long deadlineNanos) throws IOException {
+        boolean acquired = (requestBase instanceof HedgeGet) ? concurrencyLimiter.tryAcquire()
+                : concurrencyLimiter.acquire(TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+        if(!acquired) {
+            LOGGER.warn("Concurrency limit " + concurrencyLimiter.getLimit() + " of " + getAddress()
+                    + " reached, request " + requestBase.getRequestLine() + " not sent.");
+            ControllerReturnMessage msg = new ControllerReturnMessage();
+            msg.setStatus(AimdConcurrencyLimiter.SC_TOO_MANY_REQUESTS);
+            msg.setNotSent(true);
+            return msg;
+        }
+
+        long startNanos = System.nanoTime();
+        HTTPReturnMessage response = null;
+        try {
+            applyRequestDeadline(requestBase);
+            response = attempt.execute();
+            return response;
+        } finally {
+            if(requestBase.isAborted()) {
+                concurrencyLimiter.cancel();
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - startNanos, response);
+            }
+        }
+    }
+
+    private static void applyRequestDeadline(HttpRequestBase requestBase) {
+        applyRequestDeadline(requestBase, RequestDeadline.getNanos());
+    }
+
+    private static void applyRequestDeadline(HttpRequestBase requestBase, Long deadlineNanos) {
+        if(null == deadlineNanos) {
+            return;
+        }
+
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        int timeout = (int)Math.max(1, Math.min(Integer.MAX_VALUE, remainingMillis));
+        requestBase.setConfig(RequestConfig.custom().setConnectionRequestTimeout(timeout).setConnectTimeout(timeout)
+                .setSocketTimeout(timeout).build());
+    }
+
+    /**
+     * One attempt of a request. <br>
+     */
+    private interface RequestAttempt {
+
+        HTTPReturnMessage execute() throws IOException;
+    }
+
+    /**
+     * Non-blocking request with the deadlines captured from the calling thread. <br>
+     */
+    private static class AsyncAttempt {
+
+        private final HttpRequestBase requestBase;
+
+        private final Long requestDeadlineNanos;
+
+        private final long deadlineNanos;
+
+        AsyncAttempt(HttpRequestBase requestBase, Long requestDeadlineNanos, long deadlineNanos) {
+            this.requestBase = requestBase;
+            this.requestDeadlineNanos = requestDeadlineNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    /**
+     * Login AC Branch without blocking the caller. <br>
+     * <p>
+     * Concurrent callers share a single handshake: while one login is in progress every other caller
+     * gets the same future. The handshake itself is run on a small dedicated executor.
+     * </p>
+     *
+     * @param url The URL path
+     * @return future completed with true if login succeeded
+     * @since SDNO 0.5
+     */
+    public CompletableFuture<Boolean> loginAsync(final String url) {
+        while(true) {
+            CompletableFuture<Boolean> inProgress = loginInProgress.get();
+            if(null != inProgress) {
+                return inProgress;
+            }
+
+            final CompletableFuture<Boolean> newLogin = new CompletableFuture<Boolean>();
+            if(loginInProgress.compareAndSet(null, newLogin)) {
+                LOGIN_EXECUTOR.execute(() -> {
+                    boolean isLogin = false;
+                    try {
+                        isLogin = login(url);
+                    } finally {
+                        if(isLogin) {
+                            lastLoginNanos = System.nanoTime();
+                            loggedIn = true;
+                        }
+                        loginInProgress.compareAndSet(newLogin, null);
+                        newLogin.complete(isLogin);
+                    }
+                });
+                return newLogin;
+            }
+        }
+    }
+
+    /**
+     * Relogin for a request that found its session expired. <br>
+     * <p>
+     * If another caller already logged in after the request was sent, the request only needs to be
+     * replayed and no new handshake is started.
+     * </p>
+     *
+     * @param url The URL path
+     * @param requestNanos System.nanoTime() taken before the failed request was sent
+     * @return future completed with true if the request can be replayed
+     * @since SDNO 0.5
+     */
+    public CompletableFuture<Boolean> reloginAsync(final String url, final long requestNanos) {
+        if(loggedIn && lastLoginNanos - requestNanos > 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        sessionMetrics.incRequestRelogins();
+        return loginAsync(url);
+    }
+
+    /**
+     * Blocking form of {@link #reloginAsync(String, long)}. <br>
+     *
+     * @param url The URL path
+     * @param requestNanos System.nanoTime() taken before the failed request was sent
+     * @return true if the request can be replayed
+     * @since SDNO 0.5
+     */
+    public boolean relogin(final String url, final long requestNanos) {
+        try {
+            // the handshake is shared with other callers, only the wait is bounded by the request deadline
+            return reloginAsync(url, requestNanos).get(RequestDeadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch(InterruptedException e) {
+            LOGGER.warn("Wait for login interrupted.", e);
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            LOGGER.error("Login Failed. ", e);
+        } catch(TimeoutException e) {
+            LOGGER.warn("Wait for login abandoned, request deadline exceeded.");
+        }
+
+        return false;
+    }
+
+    /**
+     * Send post restful request without blocking the caller. <br>
+     *
+     * @param restUrl restful URL path
+     * @param body message body
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("deprecation")
+    public CompletableFuture<HTTPReturnMessage> postAsync(final String restUrl, final String body) {
+        LOGGER.info("Async Post Request url: " + restUrl);
+        HttpPost httpPost = new HttpPost(this.getHttpsUrl() + restUrl);
+
+        if(StringUtils.hasLength(body)) {
+            httpPost.setEntity(new StringEntity(body, HTTP.UTF_8));
+        }
+
+        return commonRequestAsync(httpPost);
+    }
+
+    /**
+     * Send get restful request without blocking the caller. <br>
+     *
+     * @param restUrl restful URL path
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    public CompletableFuture<HTTPReturnMessage> getAsync(final String restUrl) {
+        LOGGER.info("Async Get Request url: " + restUrl);
+        return commonRequestAsync(new HttpGet(this.getHttpsUrl() + restUrl));
+    }
+
+    /**
+     * Send put restful request without blocking the caller. <br>
+     *
+     * @param restUrl restful URL path
+     * @param body message body
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("deprecation")
+    public CompletableFuture<HTTPReturnMessage> putAsync(final String restUrl, final String body) {
+        HttpPut httpPut = new HttpPut(this.getHttpsUrl() + restUrl);
+
+        if(StringUtils.hasLength(body)) {
+            httpPut.setEntity(new StringEntity(body, HTTP.UTF_8));
+        }
+
+        return commonRequestAsync(httpPut);
+    }
+
+    /**
+     * Send delete restful request without blocking the caller. <br>
+     *
+     * @param restUrl restful URL path
+     * @param body message body
+     * @return future of the HTTPReturnMessage
+     * @since SDNO 0.5
+     */
+    @SuppressWarnings("deprecation")
+    public CompletableFuture<HTTPReturnMessage> deleteAsync(final String restUrl, final String body) {
+        LOGGER.info("Async Delete Request url for AC: " + restUrl);
+        HttpDeleteWithBody httpDelete = new HttpDeleteWithBody(this.getHttpsUrl() + restUrl);
+
+        if(StringUtils.hasLength(body)) {
+            httpDelete.setEntity(new StringEntity(body, HTTP.UTF_8));
+        }
+
+        return commonRequestAsync(httpDelete);
+    }
+
+    /**
+     * The future never completes exceptionally, failures are reported with status -1 like in
+     * {@link #commonRequest(HttpRequestBase)}. The request goes through the same steps as a blocking one:
+     * when the controller rejects a compressed body with 415, it is sent again uncompressed; it is sent
+     * within the concurrency limit of this node, and retried by the RetryPolicy. Waits for a slot or a
+     * retry hold no thread.
+     */
+    private CompletableFuture<HTTPReturnMessage> commonRequestAsync(HttpRequestBase requestBase) {
+        if(!isParamValide() || null == transport) {
+            LOGGER.warn("AC Login commonRequestAsync is inValide, Login failed.");
+            ControllerReturnMessage msg = new ControllerReturnMessage();
+            msg.setStatus(FAILED);
+            return CompletableFuture.completedFuture(msg);
+        }
+
+        requestBase.addHeader("Content-Type", APPLICATION_JSON);
+        requestBase.addHeader("Accept", APPLICATION_JSON);
+        final AsyncAttempt attempt = new AsyncAttempt(requestBase, RequestDeadline.getNanos(),
+                RequestDeadline.getNanos(controllerParam.getRequestDeadline()));
+        if(!(requestBase instanceof HttpEntityEnclosingRequestBase)) {
+            return executeLimitedAsync(attempt);
+        }
+
+        final HttpEntityEnclosingRequestBase entityRequest = (HttpEntityEnclosingRequestBase)requestBase;
+        final HttpEntity entity = entityRequest.getEntity();
+        HttpEntity compressed = contentCompression.compress(entity);
+        if(compressed == entity) {
+            return executeLimitedAsync(attempt);
+        }
+
+        entityRequest.setEntity(compressed);
+        return executeLimitedAsync(attempt).thenCompose(response -> {
+            if(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE != response.getStatus()) {
+                return CompletableFuture.completedFuture(response);
+            }
+
+            LOGGER.warn("Controller " + getAddress() + " does not accept compressed requests, send uncompressed.");
+            contentCompression.rejectRequestCompression();
+            entityRequest.setEntity(entity);
+            requestBase.reset();
+            return executeLimitedAsync(attempt);
+        });
+    }
+
+    /**
+     * Non-blocking variant of executeLimited, the request waits for a slot in the queue of the limiter.
+     */
+    private CompletableFuture<HTTPReturnMessage> executeLimitedAsync(final AsyncAttempt attempt) {
+        long maxWaitMillis = TimeUnit.NANOSECONDS.toMillis(attempt.deadlineNanos - System.nanoTime());
+        return concurrencyLimiter.acquireAsync(maxWaitMillis, SCHEDULER).thenCompose(acquired -> {
+            if(!acquired) {
+                LOGGER.warn("Concurrency limit " + concurrencyLimiter.getLimit() + " of " + getAddress()
+                        + " reached, request " + attempt.requestBase.getRequestLine() + " not sent.");
+                ControllerReturnMessage msg = new ControllerReturnMessage();
+                msg.setStatus(AimdConcurrencyLimiter.SC_TOO_MANY_REQUESTS);
+                msg.setNotSent(true);
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(msg);
+            }
+
+            final long startNanos = System.nanoTime();
+            CompletableFuture<HTTPReturnMessage> response = new CompletableFuture<HTTPReturnMessage>();
+            executeAsync(attempt, 1, response);
+            return response.whenComplete(
+                    (rsp, e) -> concurrencyLimiter.release(System.nanoTime() - startNanos, rsp));
+        });
+    }
+
+    /**
+     * Non-blocking variant of executeWithRetry, the backoff before a retry is waited on the scheduler.
+     */
+    private void executeAsync(final AsyncAttempt attempt, final int attemptCount,
+            final CompletableFuture<HTTPReturnMessage> future) {
+        final HttpRequestBase requestBase = attempt.requestBase;
+        final ControllerReturnMessage msg = new ControllerReturnMessage();
+        msg.setStatus(FAILED);
+
+        applyRequestDeadline(requestBase, attempt.requestDeadlineNanos);
+        LOGGER.info(requestBase.toString());
+        transport.executeAsync(requestBase, new FutureCallback<HttpResponse>() {
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public void completed(HttpResponse resp) {
+                try {
+                    LOGGER.info(resp.toString());
+                    ReloginDetector.Verdict verdict = ReloginDetector.classify(resp);
+                    msg.setBody(EntityUtils.toString(resp.getEntity(), HTTP.UTF_8));
+                    msg.setStatus(resp.getStatusLine().getStatusCode());
+                    msg.setReloginRequired(ReloginDetector.isNeedRelogin(verdict, msg.getBody()));
+                    release(resp);
+                } catch(IOException | ParseException | IllegalStateException e) {
+                    LOGGER.warn("Do Async Request Failed.", e);
+                }
+                future.complete(msg);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                if(e instanceof IOException && retryPolicy.isRetryable(requestBase, (IOException)e, attemptCount)) {
+                    long backoffMillis = retryPolicy.getBackoffMillis(attemptCount, attempt.deadlineNanos);
+                    if(backoffMillis >= 0) {
+                        LOGGER.warn("Request " + requestBase.getRequestLine() + " failed, retry in " + backoffMillis
+                                + " ms.", e);
+                        SCHEDULER.schedule(() -> {
+                            requestBase.reset();
+                            executeAsync(attempt, attemptCount + 1, future);
+                        }, backoffMillis, TimeUnit.MILLISECONDS);
+                        return;
+                    }
+                }
+
+                LOGGER.warn("Do Async Request Failed.", e);
+                msg.setNotSent(e instanceof IOException && RetryPolicy.isNotSent((IOException)e));
+                future.complete(msg);
+            }
+
+            @Override
+            public void cancelled() {
+                LOGGER.warn("Async Request cancelled.");
+                future.complete(msg);
+            }
+        });
+    }
+
     private boolean isParamValide() {
         return (null != this.acIp) && (null != this.acLoginName) && (null != this.acLoginPassword)
                 && (null != this.acPort);
@@ -419,6 +1268,16 @@ public class OverlayVpnDriverSsoProxy {
     public String toString() {
         return "OverlayVpnDriverSsoProxy [acIp=" + acIp + ", acPort=" + acPort + ", acLoginName=" + acLoginName + "]";
     }
+
+    /**
+     * Second attempt of a hedged GET request, sent only within a free slot of the concurrency limit.
+     */
+    private static class HedgeGet extends HttpGet {
+
+        HedgeGet(String uri) {
+            super(uri);
+        }
+    }
 }
 
 class HttpDeleteWithBody extends HttpEntityEnclosingRequestBase {
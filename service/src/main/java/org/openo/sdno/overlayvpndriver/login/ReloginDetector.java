@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Decides whether a controller response means the SSO session is gone. <br>
+ * <p>
+ * The status code and redirect Location decide first: an expired session is answered with 401 or a
+ * redirect to the SSO pages. The client follows redirects, so a Location is only seen when it did not;
+ * a followed SSO redirect ends in a page of any content type, JSON included. All other responses are
+ * therefore checked for the SSO markers, but only in the first {@value #BODY_PREFIX_SIZE} characters
+ * of the body.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 23, 2016
+ */
+public class ReloginDetector {
+
+    /**
+     * Maximum number of body characters looked at for the SSO markers.
+     */
+    public static final int BODY_PREFIX_SIZE = 8192;
+
+    private static final String SSO_REDIRECT = "ssoRedirect";
+
+    private static final String SSO_LOGOUT = "sso/logout";
+
+    private static final String SSO_LOGIN = "sso/login";
+
+    /**
+     * Verdict taken from the status line and headers only.
+     */
+    public enum Verdict {
+        RELOGIN, NO_RELOGIN, UNKNOWN
+    }
+
+    private ReloginDetector() {
+    }
+
+    /**
+     * Classify a response from its status line and headers. <br>
+     *
+     * @param response The controller response
+     * @return RELOGIN or NO_RELOGIN, UNKNOWN when the body prefix has to be checked
+     * @since SDNO 0.5
+     */
+    public static Verdict classify(HttpResponse response) {
+        Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+        return classify(response.getStatusLine().getStatusCode(), null == location ? null : location.getValue());
+    }
+
+    /**
+     * Classify a response from its status code and Location. <br>
+     *
+     * @param status The status code
+     * @param location The Location header, may be null
+     * @return RELOGIN or NO_RELOGIN, UNKNOWN when the body prefix has to be checked
+     * @since SDNO 0.5
+     */
+    public static Verdict classify(int status, String location) {
+        if(HttpStatus.SC_UNAUTHORIZED == status) {
+            return Verdict.RELOGIN;
+        }
+
+        if(null != location && status >= HttpStatus.SC_MULTIPLE_CHOICES && status < HttpStatus.SC_BAD_REQUEST) {
+            return isSsoLocation(location) ? Verdict.RELOGIN : Verdict.NO_RELOGIN;
+        }
+
+        return Verdict.UNKNOWN;
+    }
+
+    /**
+     * Check the start of a body for the SSO redirect and logout markers. <br>
+     *
+     * @param body The response body, may be null
+     * @return true when a marker is found in the first {@value #BODY_PREFIX_SIZE} characters
+     * @since SDNO 0.5
+     */
+    public static boolean isReloginBody(String body) {
+        if(null == body) {
+            return false;
+        }
+
+        int limit = Math.min(body.length(), BODY_PREFIX_SIZE);
+        return containsWithin(body, SSO_REDIRECT, limit) || containsWithin(body, SSO_LOGOUT, limit);
+    }
+
+    /**
+     * Final verdict of a response whose headers were classified before the body was read. <br>
+     *
+     * @param verdict The header verdict
+     * @param body The response body, may be null
+     * @return true when the session has to be renewed
+     * @since SDNO 0.5
+     */
+    public static boolean isNeedRelogin(Verdict verdict, String body) {
+        if(Verdict.UNKNOWN == verdict) {
+            return isReloginBody(body);
+        }
+        return Verdict.RELOGIN == verdict;
+    }
+
+    /**
+     * Verdict of a returned message, using the one taken from the headers when present. <br>
+     *
+     * @param msg The returned message
+     * @return true when the session has to be renewed
+     * @since SDNO 0.5
+     */
+    public static boolean isNeedRelogin(HTTPReturnMessage msg) {
+        if(msg instanceof ControllerReturnMessage) {
+            Boolean reloginRequired = ((ControllerReturnMessage)msg).getReloginRequired();
+            if(null != reloginRequired) {
+                return reloginRequired;
+            }
+        }
+        return isReloginBody(msg.getBody());
+    }
+
+    private static boolean isSsoLocation(String location) {
+        return location.contains(SSO_LOGIN) || location.contains(SSO_LOGOUT) || location.contains(SSO_REDIRECT);
+    }
+
+    /**
+     * Same as indexOf(marker) > 0 within the limit, the body is never copied.
+     */
+    private static boolean containsWithin(String body, String marker, int limit) {
+        int last = limit - marker.length();
+        for(int i = 1; i <= last; i++) {
+            if(body.charAt(i) == marker.charAt(0) && body.regionMatches(i, marker, 0, marker.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
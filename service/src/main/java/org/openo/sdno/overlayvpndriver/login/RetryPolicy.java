@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+/**
+ * Retry policy for controller calls failing with a transient network error. <br>
+ * <p>
+ * A call is repeated only when repeating it cannot apply a change twice: GET queries, the PUT of IPSec and
+ * VxLAN configuration, which replaces the configuration of the device, and the DELETE of VxLAN by ids.
+ * Any other call is repeated only when the connection could not be established, i.e. the request was
+ * never sent. Backoff is exponential with full jitter, and no retry is started after the deadline.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 15, 2016
+ */
+public class RetryPolicy {
+
+    private static final String METHOD_GET = "GET";
+
+    private static final String METHOD_PUT = "PUT";
+
+    private static final String METHOD_DELETE = "DELETE";
+
+    private static final String IPSEC_PATH = "/arvpnsipsec";
+
+    private static final String VXLAN_PATH = "/arvpnsvxlan";
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    /**
+     * Constructor<br>
+     *
+     * @param param controller parameters holding the retry settings
+     * @since SDNO 0.5
+     */
+    public RetryPolicy(ControllerParam param) {
+        this.maxAttempts = Math.max(1, param.getRetryMaxAttempts());
+        this.initialBackoffMillis = Math.max(1, param.getRetryInitialBackoff());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, param.getRetryMaxBackoff());
+    }
+
+    /**
+     * Check whether the failed attempt of the request may be repeated. <br>
+     *
+     * @param request The request that failed
+     * @param e The failure of the attempt
+     * @param attempt Number of attempts done so far, starting with 1
+     * @return true if the request may be sent again
+     * @since SDNO 0.5
+     */
+    public boolean isRetryable(HttpRequestBase request, IOException e, int attempt) {
+        if(attempt >= maxAttempts || e instanceof ClientProtocolException || !isRepeatable(request)) {
+            return false;
+        }
+
+        return isNotSent(e) || isIdempotent(request);
+    }
+
+    /**
+     * Get the backoff before the next attempt, bounded by the time left until the deadline. <br>
+     *
+     * @param attempt Number of attempts done so far, starting with 1
+     * @param deadlineNanos Deadline of the request in System.nanoTime terms
+     * @return backoff in milliseconds, negative if the next attempt would start after the deadline
+     * @since SDNO 0.5
+     */
+    public long getBackoffMillis(int attempt, long deadlineNanos) {
+        long ceiling = initialBackoffMillis << Math.min(attempt - 1, 20);
+        long backoff = ThreadLocalRandom.current().nextLong(Math.min(ceiling, maxBackoffMillis) + 1);
+        long leftMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return (backoff < leftMillis) ? backoff : -1;
+    }
+
+    static boolean isIdempotent(HttpRequestBase request) {
+        return isIdempotent(request.getMethod(), request.getURI().getPath());
+    }
+
+    static boolean isIdempotent(String method, String path) {
+        if(METHOD_GET.equals(method)) {
+            return true;
+        }
+
+        if(null == path) {
+            return false;
+        }
+
+        if(METHOD_PUT.equals(method)) {
+            return path.endsWith(IPSEC_PATH) || path.endsWith(VXLAN_PATH);
+        }
+
+        return METHOD_DELETE.equals(method) && path.endsWith(VXLAN_PATH);
+    }
+
+    static boolean isNotSent(IOException e) {
+        return e instanceof ConnectException || e instanceof ConnectTimeoutException;
+    }
+
+    private static boolean isRepeatable(HttpRequestBase request) {
+        if(!(request instanceof HttpEntityEnclosingRequest)) {
+            return true;
+        }
+
+        HttpEntity entity = ((HttpEntityEnclosingRequest)request).getEntity();
+        return null == entity || entity.isRepeatable();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the OverlayVpnDriverSsoProxy instances, one per controller identity. <br>
+ * <p>
+ * The identity is the controller address and login name, the password is not part of it: when the
+ * credential of a controller is rotated the old proxy is replaced and its connection pools are closed.
+ * Lookups take no lock. Proxies that have not been used for a while are evicted and closed, and the
+ * registry never holds more than a fixed number of proxies. A replaced or evicted proxy is closed only
+ * once the requests holding a lease on it have completed.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2016-6-22
+ */
+public class SsoProxyRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SsoProxyRegistry.class);
+
+    private static final int MAX_INSTANCES = 256;
+
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private static final SsoProxyRegistry INSTANCE = new SsoProxyRegistry();
+
+    private final Map<String, OverlayVpnDriverSsoProxy> identityToProxy =
+            new ConcurrentHashMap<String, OverlayVpnDriverSsoProxy>();
+
+    private SsoProxyRegistry() {
+    }
+
+    /**
+     * Get instance. <br>
+     *
+     * @return the SsoProxyRegistry instance
+     * @since SDNO 0.5
+     */
+    public static SsoProxyRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the proxy of one controller, creating it if needed. <br>
+     *
+     * @param acIp The IP address
+     * @param acPort The port
+     * @param acLoginName The login name
+     * @param acLoginPassword The login password
+     * @return the OverlayVpnDriverSsoProxy instance
+     * @since SDNO 0.5
+     */
+    public OverlayVpnDriverSsoProxy get(final String acIp, final String acPort, final String acLoginName,
+            final String acLoginPassword) {
+        String identity = acIp + ':' + acPort + '@' + acLoginName;
+
+        OverlayVpnDriverSsoProxy proxy = identityToProxy.get(identity);
+        if(null != proxy && proxy.hasPassword(acLoginPassword)) {
+            return proxy;
+        }
+
+        final OverlayVpnDriverSsoProxy[] replaced = new OverlayVpnDriverSsoProxy[1];
+        proxy = identityToProxy.compute(identity, (key, existing) -> {
+            if(null != existing && existing.hasPassword(acLoginPassword)) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return new OverlayVpnDriverSsoProxy(acIp, acPort, acLoginName, acLoginPassword);
+        });
+
+        if(null != replaced[0]) {
+            LOGGER.info("Controller credential changed, close " + replaced[0] + " once its requests completed");
+            replaced[0].retire();
+        }
+
+        if(identityToProxy.size() > MAX_INSTANCES) {
+            evictLeastRecentlyUsed();
+        }
+
+        return proxy;
+    }
+
+    /**
+     * Get all live proxies. <br>
+     *
+     * @return snapshot of the live proxies
+     * @since SDNO 0.5
+     */
+    public Collection<OverlayVpnDriverSsoProxy> getAll() {
+        return new ArrayList<OverlayVpnDriverSsoProxy>(identityToProxy.values());
+    }
+
+    /**
+     * Get the number of live proxies, each one owns its own connection pools. <br>
+     *
+     * @return number of live proxies
+     * @since SDNO 0.5
+     */
+    public int getLivePoolCount() {
+        return identityToProxy.size();
+    }
+
+    /**
+     * Get the blocking connection pool statistics of every live proxy. <br>
+     *
+     * @return map of controller proxy description to its pool statistics
+     * @since SDNO 0.5
+     */
+    public Map<String, PoolStats> getPoolStats() {
+        Map<String, PoolStats> poolStats = new HashMap<String, PoolStats>();
+        for(OverlayVpnDriverSsoProxy proxy : identityToProxy.values()) {
+            poolStats.put(proxy.toString(), proxy.getPoolStats());
+        }
+        return poolStats;
+    }
+
+    /**
+     * Evict and close the proxies that have not been used within the idle timeout. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public void evictIdle() {
+        for(Map.Entry<String, OverlayVpnDriverSsoProxy> entry : identityToProxy.entrySet()) {
+            OverlayVpnDriverSsoProxy proxy = entry.getValue();
+            if(proxy.getIdleNanos() >= IDLE_TIMEOUT_NANOS) {
+                evict(entry.getKey(), proxy);
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String lruIdentity = null;
+        OverlayVpnDriverSsoProxy lruProxy = null;
+        for(Map.Entry<String, OverlayVpnDriverSsoProxy> entry : identityToProxy.entrySet()) {
+            if(null == lruProxy || entry.getValue().getIdleNanos() > lruProxy.getIdleNanos()) {
+                lruIdentity = entry.getKey();
+                lruProxy = entry.getValue();
+            }
+        }
+
+        if(null != lruProxy) {
+            evict(lruIdentity, lruProxy);
+        }
+    }
+
+    private void evict(String identity, OverlayVpnDriverSsoProxy proxy) {
+        if(identityToProxy.remove(identity, proxy)) {
+            LOGGER.info("Evict idle controller proxy " + proxy);
+            proxy.retire();
+        }
+    }
+}
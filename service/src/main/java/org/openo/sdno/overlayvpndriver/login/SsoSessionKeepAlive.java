@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background keep-alive of the SSO sessions of all cached controller proxies. <br>
+ * <p>
+ * Periodically probes every logged in session and logs in again before the session gets too old or
+ * as soon as the probe finds it expired, so that provisioning requests rarely pay for a login. Idle
+ * proxies are evicted from the SsoProxyRegistry first, their sessions are not kept alive. The interval
+ * and the maximum session age come from controllerparam.json; each run ends with a log line of the
+ * connection pools, sessions and circuit breakers.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 5, 2016
+ */
+public class SsoSessionKeepAlive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SsoSessionKeepAlive.class);
+
+    private static final String DEFAULT_IP = "default";
+
+    private static final SsoSessionKeepAlive INSTANCE = new SsoSessionKeepAlive();
+
+    private ScheduledExecutorService scheduler;
+
+    private SsoSessionKeepAlive() {
+    }
+
+    /**
+     * Get instance. <br>
+     *
+     * @return the SsoSessionKeepAlive instance
+     * @since SDNO 0.5
+     */
+    public static SsoSessionKeepAlive getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start the keep-alive task. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public synchronized void start() {
+        if(null != scheduler) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "overlayvpndriver-sso-keepalive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, ControllerParamReader.getControllerParam(DEFAULT_IP).getKeepAliveInterval());
+        scheduler.scheduleWithFixedDelay(this::keepAliveAll, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("SSO session keep-alive started, interval " + interval + " ms.");
+    }
+
+    /**
+     * Stop the keep-alive task. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public synchronized void stop() {
+        if(null != scheduler) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            LOGGER.info("SSO session keep-alive stopped.");
+        }
+    }
+
+    /**
+     * Get session metrics of all cached controller proxies. <br>
+     *
+     * @return map of controller proxy description to its session metrics
+     * @since SDNO 0.5
+     */
+    public Map<String, SsoSessionMetrics> getMetrics() {
+        Map<String, SsoSessionMetrics> metrics = new HashMap<String, SsoSessionMetrics>();
+        for(OverlayVpnDriverSsoProxy proxy : OverlayVpnDriverSsoProxy.getInstances()) {
+            metrics.put(proxy.toString(), proxy.getSessionMetrics());
+        }
+        return metrics;
+    }
+
+    void keepAliveAll() {
+        SsoProxyRegistry.getInstance().evictIdle();
+        for(OverlayVpnDriverSsoProxy proxy : OverlayVpnDriverSsoProxy.getInstances()) {
+            try {
+                keepAlive(proxy);
+            } catch(RuntimeException e) {
+                LOGGER.warn("Keep alive failed for " + proxy, e);
+            }
+        }
+        logStatistics();
+    }
+
+    private void logStatistics() {
+        SsoProxyRegistry registry = SsoProxyRegistry.getInstance();
+        LOGGER.info("Live controller proxies: " + registry.getLivePoolCount() + ", pools: " + registry.getPoolStats()
+                + ", sessions: " + getMetrics() + ", circuits: " + ControllerGuard.getInstance().getStates());
+    }
+
+    private void keepAlive(OverlayVpnDriverSsoProxy proxy) {
+        if(!proxy.hasLoggedIn()) {
+            return;
+        }
+
+        SsoSessionMetrics metrics = proxy.getSessionMetrics();
+        if(proxy.getSessionAgeMillis() >= proxy.getControllerParam().getMaxSessionAge()) {
+            LOGGER.info("Session too old, refresh it: " + proxy);
+            if(awaitLogin(proxy)) {
+                metrics.incSessionRefreshes();
+            }
+            return;
+        }
+
+        metrics.incKeepAlivePings();
+        if(!proxy.ping()) {
+            LOGGER.info("Session expired, login in background: " + proxy);
+            if(awaitLogin(proxy)) {
+                metrics.incSessionRefreshes();
+                metrics.incAvoidedRelogins();
+            }
+        }
+    }
+
+    /**
+     * Wait for the login at most the request deadline of the controller, so that a hanging controller does
+     * not stop the keep-alive of all others. The login itself goes on in background.
+     */
+    private boolean awaitLogin(OverlayVpnDriverSsoProxy proxy) {
+        long timeout = proxy.getControllerParam().getRequestDeadline();
+        try {
+            return proxy.loginAsync(OverlayVpnDriverProxy.SSO_LOGIN).get(timeout, TimeUnit.MILLISECONDS);
+        } catch(TimeoutException e) {
+            LOGGER.warn("Login not finished within " + timeout + " ms: " + proxy);
+        } catch(ExecutionException e) {
+            LOGGER.warn("Login failed: " + proxy, e.getCause());
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSO session counters of one controller proxy. <br>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 5, 2016
+ */
+public class SsoSessionMetrics {
+
+    private final AtomicLong keepAlivePings = new AtomicLong();
+
+    private final AtomicLong sessionRefreshes = new AtomicLong();
+
+    private final AtomicLong avoidedRelogins = new AtomicLong();
+
+    private final AtomicLong requestRelogins = new AtomicLong();
+
+    void incKeepAlivePings() {
+        keepAlivePings.incrementAndGet();
+    }
+
+    void incSessionRefreshes() {
+        sessionRefreshes.incrementAndGet();
+    }
+
+    void incAvoidedRelogins() {
+        avoidedRelogins.incrementAndGet();
+    }
+
+    void incRequestRelogins() {
+        requestRelogins.incrementAndGet();
+    }
+
+    /**
+     * @return number of keep-alive probes sent in background
+     */
+    public long getKeepAlivePings() {
+        return keepAlivePings.get();
+    }
+
+    /**
+     * @return number of successful logins done in background
+     */
+    public long getSessionRefreshes() {
+        return sessionRefreshes.get();
+    }
+
+    /**
+     * @return number of expired sessions found and renewed in background before a request hit them
+     */
+    public long getAvoidedRelogins() {
+        return avoidedRelogins.get();
+    }
+
+    /**
+     * @return number of logins a provisioning request had to wait for
+     */
+    public long getRequestRelogins() {
+        return requestRelogins.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SsoSessionMetrics [keepAlivePings=" + keepAlivePings + ", sessionRefreshes=" + sessionRefreshes
+                + ", avoidedRelogins=" + avoidedRelogins + ", requestRelogins=" + requestRelogins + "]";
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.http.conn.ssl.AllowAllHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TLS context shared by all controller proxies. <br>
+ * <p>
+ * One SSLContext means one client session cache, so a new pooled connection to a controller resumes
+ * the TLS session of an earlier connection instead of doing a full handshake, also across proxy
+ * instances of the same controller. Sessions are cached per host and port.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 22, 2016
+ */
+public class TlsContextFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TlsContextFactory.class);
+
+    private static final String SSLCONTEXT_TLS = "TLSV1.2";
+
+    private static final int SESSION_CACHE_SIZE = 1024;
+
+    private static final int SESSION_TIMEOUT_SECONDS = 8 * 60 * 60;
+
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10000;
+
+    private static final ExecutorService HANDSHAKE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "overlayvpndriver-tls-handshake");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile TlsContextFactory instance = null;
+
+    private final SSLContext sslContext;
+
+    private final X509HostnameVerifier hostnameVerifier = new AllowAllHostnameVerifier();
+
+    private final SSLConnectionSocketFactory socketFactory;
+
+    private final SSLIOSessionStrategy ioSessionStrategy;
+
+    private TlsContextFactory() throws GeneralSecurityException {
+        sslContext = SSLContext.getInstance(SSLCONTEXT_TLS);
+        sslContext.init(null, new TrustManager[] {new X509TrustManager() {
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] certs, String authType) {
+                // unimplemented
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] certs, String authType) {
+                // unimplemented
+            }
+        }}, new SecureRandom());
+
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+        sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+
+        socketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
+        ioSessionStrategy = new SSLIOSessionStrategy(sslContext, hostnameVerifier);
+    }
+
+    /**
+     * Get the instance, creating the TLS context on first use. <br>
+     *
+     * @return the instance
+     * @throws GeneralSecurityException When the TLS context can not be created
+     * @since SDNO 0.5
+     */
+    public static TlsContextFactory getInstance() throws GeneralSecurityException {
+        if(null == instance) {
+            synchronized(TlsContextFactory.class) {
+                if(null == instance) {
+                    instance = new TlsContextFactory();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return shared socket factory of the blocking clients
+     */
+    public SSLConnectionSocketFactory getSocketFactory() {
+        return socketFactory;
+    }
+
+    /**
+     * @return shared session strategy of the non-blocking clients
+     */
+    public SSLIOSessionStrategy getIoSessionStrategy() {
+        return ioSessionStrategy;
+    }
+
+    /**
+     * @return client session cache of the shared TLS context
+     */
+    public SSLSessionContext getSessionContext() {
+        return sslContext.getClientSessionContext();
+    }
+
+    /**
+     * Do a TLS handshake with the controller in background, so that the session is cached before the
+     * first request. <br>
+     *
+     * @param host The controller host
+     * @param port The controller port
+     * @since SDNO 0.5
+     */
+    public void preHandshake(final String host, final int port) {
+        HANDSHAKE_EXECUTOR.execute(() -> {
+            try (SSLSocket socket = (SSLSocket)sslContext.getSocketFactory().createSocket()) {
+                socket.connect(new InetSocketAddress(host, port), HANDSHAKE_TIMEOUT_MILLIS);
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                socket.startHandshake();
+                LOGGER.info("TLS session with " + host + ":" + port + " established.");
+            } catch(IOException e) {
+                LOGGER.warn("TLS pre-handshake with " + host + ":" + port + " failed.", e);
+            }
+        });
+    }
+}
@@ -62,7 +62,7 @@ public class IpSecOperationAPI extends OperationAPI {
         replaceParamMap.put("PeerAddress", ipSecConn.getIke().getPeerAddress());
         replaceParamMap.put("Auth_Algorithm", ipSecConn.getIpSec().getEspAuthAlgorithm());
         replaceParamMap.put("Encrypt_Algorithm", ipSecConn.getIpSec().getEspEncryptionAlgorithm());
-        sshProtocol.executeShellScript(CREATE_IPSEC_SCRIPT, replaceParamMap);
+        executeShellScript(CREATE_IPSEC_SCRIPT, replaceParamMap);
     }
 
     /**
@@ -76,7 +76,7 @@ public class IpSecOperationAPI extends OperationAPI {
         Map<String, String> replaceParamMap = new HashMap<String, String>();
         replaceParamMap.put("Acl_Number", ipSecModel.getUuid());
         replaceParamMap.put("IpSecName", ipSecModel.getUuid());
-        sshProtocol.executeShellScript(DELETE_IPSEC_SCRIPT, replaceParamMap);
+        executeShellScript(DELETE_IPSEC_SCRIPT, replaceParamMap);
     }
 
 }
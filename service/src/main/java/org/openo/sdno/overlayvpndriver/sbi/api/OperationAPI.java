@@ -16,11 +16,26 @@
 
 package org.openo.sdno.overlayvpndriver.sbi.api;
 
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.cli.protocol.ProtocolParameter;
 import org.openo.sdno.cli.protocol.SshProtocol;
+import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
+import org.openo.sdno.overlayvpn.result.SvcExcptUtil;
 import org.openo.sdno.overlayvpndriver.util.config.DeviceCommParamReader;
 import org.openo.sdno.overlayvpndriver.util.config.DeviceParam;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Base class of Operation API.<br>
@@ -30,7 +45,18 @@ import org.openo.sdno.overlayvpndriver.util.config.DeviceParam;
  */
 public class OperationAPI {
 
-    protected SshProtocol sshProtocol;
+    private static final Logger LOGGER = LoggerFactory.getLogger(OperationAPI.class);
+
+    private static final int SSH_THREAD_NUM = 16;
+
+    private static final ExecutorService SSH_EXECUTOR = new ThreadPoolExecutor(0, SSH_THREAD_NUM, 60,
+            TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), r -> {
+                Thread thread = new Thread(r, "overlayvpndriver-ssh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final DeviceParam commParam;
 
     /**
      * Constructor<br>
@@ -39,10 +65,69 @@ public class OperationAPI {
      * @since SDNO 0.5
      */
     public OperationAPI(String deviceId) throws ServiceException {
-        DeviceParam commParam = DeviceCommParamReader.getDeviceCommParam(deviceId);
-        ProtocolParameter param = new ProtocolParameter(commParam.getIpAddress(), Integer.parseInt(commParam.getPort()),
-                commParam.getUserName(), commParam.getPassword());
-        sshProtocol = new SshProtocol(param);
+        commParam = DeviceCommParamReader.getDeviceCommParam(deviceId);
+    }
+
+    /**
+     * Execute the shell script on the device within the request deadline.<br>
+     * <p>
+     * Without deadline of the request the time budget of the device configuration is applied. The script is
+     * executed in a new SSH session on a bounded pool, the session gets the remaining time as connect and
+     * read timeout so that it ends by itself at the deadline. When all threads of the pool are busy the
+     * script is not executed.
+     * </p>
+     * 
+     * @param script path of the script
+     * @param replaceParamMap parameters to replace in the script
+     * @throws ServiceException when the script failed or the deadline passed
+     * @since SDNO 0.5
+     */
+    protected void executeShellScript(String script, Map<String, String> replaceParamMap) throws ServiceException {
+        RequestDeadline.check("Execute " + script);
+        long deadlineNanos = RequestDeadline.getNanos(commParam.getTimeout());
+        int timeout = (int)Math.max(1L,
+                Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+
+        ProtocolParameter param = new ProtocolParameter(commParam.getIpAddress(),
+                Integer.parseInt(commParam.getPort()), commParam.getUserName(), commParam.getPassword());
+        param.setTimeout(timeout);
+        SshProtocol sshProtocol = new SshProtocol(param);
+
+        Future<Void> future;
+        try {
+            future = SSH_EXECUTOR.submit(() -> {
+                sshProtocol.executeShellScript(script, replaceParamMap);
+                return null;
+            });
+        } catch(RejectedExecutionException e) {
+            String errMsg = "Execute " + script + " rejected, too many SSH sessions";
+            LOGGER.warn(errMsg);
+            SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
+            return;
+        }
+
+        try {
+            future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof ServiceException) {
+                throw (ServiceException)e.getCause();
+            }
+            throwExecuteFailed(script, e.getCause());
+        } catch(TimeoutException e) {
+            future.cancel(true);
+            String errMsg = "Execute " + script + " abandoned, deadline exceeded";
+            LOGGER.warn(errMsg);
+            SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
+        } catch(InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throwExecuteFailed(script, e);
+        }
     }
 
+    private static void throwExecuteFailed(String script, Throwable cause) throws ServiceException {
+        String errMsg = "Execute " + script + " failed";
+        LOGGER.error(errMsg, cause);
+        SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
+    }
 }
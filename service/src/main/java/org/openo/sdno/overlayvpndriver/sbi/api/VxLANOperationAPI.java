@@ -51,7 +51,7 @@ public class VxLANOperationAPI extends OperationAPI {
         replaceParamMap.put("Vlan", String.valueOf(vlan));
         replaceParamMap.put("LocalAddress", localAddress);
         replaceParamMap.put("PeerAddress", peerAddress);
-        sshProtocol.executeShellScript(CREATE_VXLAN_SCRIPT, replaceParamMap);
+        executeShellScript(CREATE_VXLAN_SCRIPT, replaceParamMap);
 
         deviceModel.setUuid(String.valueOf(netVni.getVni()));
 
@@ -62,6 +62,6 @@ public class VxLANOperationAPI extends OperationAPI {
         Map<String, String> replaceParamMap = new HashMap<String, String>();
         replaceParamMap.put("Bd_Id", vxLanId);
         replaceParamMap.put("Vni", vxLanId);
-        sshProtocol.executeShellScript(DELETE_VXLAN_SCRIPT, replaceParamMap);
+        executeShellScript(DELETE_VXLAN_SCRIPT, replaceParamMap);
     }
 }
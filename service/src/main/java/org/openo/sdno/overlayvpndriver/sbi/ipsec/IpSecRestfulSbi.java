@@ -24,11 +24,12 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
-import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.consts.CommConst;
+import org.openo.sdno.overlayvpndriver.login.JsonStreamEntity;
 import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverProxy;
 import org.openo.sdno.overlayvpndriver.model.ipsec.adapter.NetIpSecModel;
 import org.openo.sdno.overlayvpndriver.util.consts.ControllerUrlConst;
+import org.openo.sdno.overlayvpndriver.util.controller.ControllerPagedQuery;
 import org.openo.sdno.overlayvpndriver.util.controller.ControllerUtil;
 import org.openo.sdno.util.http.HTTPReturnMessage;
 
@@ -62,9 +63,9 @@ public class IpSecRestfulSbi {
         ctrlInfoMap.put(CommConst.IP_SEC_LIST, ipsecModelList);
 
         HTTPReturnMessage httpMsg =
-                OverlayVpnDriverProxy.getInstance().sendPutMsg(ipSecUrl, JsonUtil.toJson(ctrlInfoMap), ctrlUuid);
+                OverlayVpnDriverProxy.getInstance().sendPutMsg(ipSecUrl, new JsonStreamEntity(ctrlInfoMap), ctrlUuid);
 
-        return new ControllerUtil<NetIpSecModel>().checkRsp(httpMsg);
+        return new ControllerUtil<NetIpSecModel>(NetIpSecModel.class).checkRsp(httpMsg);
     }
 
     /**
@@ -103,8 +104,7 @@ public class IpSecRestfulSbi {
             queryUrl = strBuidler.toString();
         }
 
-        HTTPReturnMessage httpMsg = OverlayVpnDriverProxy.getInstance().sendGetMsg(queryUrl, null, ctrlUuid);
-        return new ControllerUtil<NetIpSecModel>().checkRsp(httpMsg);
+        return new ControllerPagedQuery<NetIpSecModel>(ctrlUuid, queryUrl, NetIpSecModel.class).toList();
     }
 
 }
@@ -26,6 +26,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.consts.CommConst;
+import org.openo.sdno.overlayvpndriver.login.JsonStreamEntity;
 import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverProxy;
 import org.openo.sdno.overlayvpndriver.model.vxlan.adapter.NetVxLanDeviceModel;
 import org.openo.sdno.overlayvpndriver.util.consts.ControllerUrlConst;
@@ -58,8 +59,8 @@ public class VxLANRestfulSbi {
         Map<String, List<NetVxLanDeviceModel>> ctrlInfoMap = new ConcurrentHashMap<String, List<NetVxLanDeviceModel>>();
         ctrlInfoMap.put(CommConst.VXLAN_LIST, netVxLanDeviceModelList);
         HTTPReturnMessage httpMsg =
-                OverlayVpnDriverProxy.getInstance().sendPutMsg(url, JsonUtil.toJson(ctrlInfoMap), ctrlUuid);
-        return new ControllerUtil<NetVxLanDeviceModel>().checkRsp(httpMsg);
+                OverlayVpnDriverProxy.getInstance().sendPutMsg(url, new JsonStreamEntity(ctrlInfoMap), ctrlUuid);
+        return new ControllerUtil<NetVxLanDeviceModel>(NetVxLanDeviceModel.class).checkRsp(httpMsg);
     }
 
     /**
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.sbi.wan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openo.sdno.overlayvpn.model.port.WanSubInterface;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * Immutable index of one version of the WanSubInterface configuration. <br>
+ * <p>
+ * The sub interfaces are indexed by device IP address, and by VLAN per device. When an address is
+ * configured more than once, the last entry is used; when a device has a VLAN more than once, its
+ * first sub interface with the VLAN is used. The sub interfaces handed out are copies, so callers may
+ * change them without changing the index; they are copied property by property with the cached bean
+ * properties of WanSubInterface.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 14, 2016
+ */
+class WanSubInfIndex {
+
+    private final Map<String, List<WanSubInterface>> ipToWanSubInfs;
+
+    private final Map<String, Map<Integer, WanSubInterface>> ipToVlanToWanSubInf;
+
+    /**
+     * Constructor<br>
+     *
+     * @param configDataList The configuration entries of all devices
+     * @since SDNO 0.5
+     */
+    WanSubInfIndex(List<WanSubInfConfigData> configDataList) {
+        Map<String, List<WanSubInterface>> ipMap = new HashMap<String, List<WanSubInterface>>();
+        Map<String, Map<Integer, WanSubInterface>> ipVlanMap = new HashMap<String, Map<Integer, WanSubInterface>>();
+
+        Map<String, WanSubInfConfigData> ipToConfigData = new HashMap<String, WanSubInfConfigData>();
+        for(WanSubInfConfigData configData : configDataList) {
+            if(null != configData.getIpAddress()) {
+                ipToConfigData.put(configData.getIpAddress(), configData);
+            }
+        }
+
+        for(Map.Entry<String, WanSubInfConfigData> ipEntry : ipToConfigData.entrySet()) {
+            String ipAddress = ipEntry.getKey();
+            WanSubInfConfigData configData = ipEntry.getValue();
+            List<WanSubInterface> wanSubInfs = new ArrayList<WanSubInterface>();
+            if(null != configData.getWanSubInf()) {
+                wanSubInfs.addAll(configData.getWanSubInf());
+            }
+            Map<Integer, WanSubInterface> deviceVlanMap = new HashMap<Integer, WanSubInterface>();
+            for(WanSubInterface wanSubInf : wanSubInfs) {
+                Integer vlanId = wanSubInf.getCeLowVlan();
+                if(null == vlanId) {
+                    continue;
+                }
+
+                if(!deviceVlanMap.containsKey(vlanId)) {
+                    deviceVlanMap.put(vlanId, wanSubInf);
+                }
+            }
+
+            ipMap.put(ipAddress, Collections.unmodifiableList(wanSubInfs));
+            ipVlanMap.put(ipAddress, Collections.unmodifiableMap(deviceVlanMap));
+        }
+
+        this.ipToWanSubInfs = Collections.unmodifiableMap(ipMap);
+        this.ipToVlanToWanSubInf = Collections.unmodifiableMap(ipVlanMap);
+    }
+
+    /**
+     * @return copies of the sub interfaces of the device, empty if the device is not configured
+     */
+    List<WanSubInterface> getByIp(String ipAddress) {
+        return copy(ipToWanSubInfs.get(ipAddress));
+    }
+
+    /**
+     * @return copy of the sub interface of the device with the VLAN, null if there is none
+     */
+    WanSubInterface getByIpAndVlan(String ipAddress, int vlanId) {
+        Map<Integer, WanSubInterface> vlanToWanSubInf = ipToVlanToWanSubInf.get(ipAddress);
+        return (null == vlanToWanSubInf) ? null : copy(vlanToWanSubInf.get(vlanId));
+    }
+
+    private static List<WanSubInterface> copy(List<WanSubInterface> wanSubInfs) {
+        List<WanSubInterface> copies = new ArrayList<WanSubInterface>();
+        if(null != wanSubInfs) {
+            for(WanSubInterface wanSubInf : wanSubInfs) {
+                copies.add(copy(wanSubInf));
+            }
+        }
+        return copies;
+    }
+
+    private static WanSubInterface copy(WanSubInterface wanSubInf) {
+        if(null == wanSubInf) {
+            return null;
+        }
+
+        WanSubInterface copy = new WanSubInterface();
+        BeanUtils.copyProperties(wanSubInf, copy);
+        return copy;
+    }
+}
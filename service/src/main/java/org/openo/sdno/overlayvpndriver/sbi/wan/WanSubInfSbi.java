@@ -19,15 +19,13 @@ package org.openo.sdno.overlayvpndriver.sbi.wan;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.type.TypeReference;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.overlayvpn.model.port.WanSubInterface;
+import org.openo.sdno.overlayvpndriver.util.config.ConfigFileWatcher;
 import org.openo.sdno.overlayvpndriver.util.config.DeviceCommParamReader;
 import org.openo.sdno.overlayvpndriver.util.config.DeviceParam;
 import org.slf4j.Logger;
@@ -35,6 +33,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * SBI Class of WanSubInterface CLI Interface.<br>
+ * <p>
+ * The configuration file is loaded once into an immutable WanSubInfIndex, and loaded again by the
+ * ConfigFileWatcher when it changes; a file that can not be read keeps the previous index.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 2016-10-07
@@ -45,8 +47,11 @@ public class WanSubInfSbi {
 
     private static final String WAN_SUB_INTERFACE_FILE = "device/wansubinterface.json";
 
-    private static Map<String, WanSubInfConfigData> deviceIdToWanSubInfConfigData =
-            new HashMap<String, WanSubInfConfigData>();
+    private static volatile WanSubInfIndex wanSubInfIndex;
+
+    static {
+        ConfigFileWatcher.getInstance().watch(WAN_SUB_INTERFACE_FILE, WanSubInfSbi::reload);
+    }
 
     /**
      * Query WanSubInf Data.<br>
@@ -58,37 +63,68 @@ public class WanSubInfSbi {
      * @since SDNO 0.5
      */
     public List<WanSubInterface> query(String ctrlUuid, String deviceId) throws ServiceException {
+        return getIndex().getByIp(getDeviceIpAddress(deviceId));
+    }
 
-        List<WanSubInterface> wanSubInfList = new ArrayList<WanSubInterface>();
+    /**
+     * Query WanSubInf Data of one VLAN.<br>
+     * 
+     * @param ctrlUuid Controller UUid
+     * @param deviceId Device Id
+     * @param vlanId VLAN Id
+     * @return WanSubInterface queried out, null if the device has none with the VLAN
+     * @throws ServiceException when query failed
+     * @since SDNO 0.5
+     */
+    public WanSubInterface queryByVlan(String ctrlUuid, String deviceId, int vlanId) throws ServiceException {
+        return getIndex().getByIpAndVlan(getDeviceIpAddress(deviceId), vlanId);
+    }
 
+    /**
+     * Read the configuration file again. <br>
+     * <p>
+     * When the file can not be read the current configuration is kept.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    public static void reload() {
+        try {
+            wanSubInfIndex = readIndex();
+        } catch(ServiceException e) {
+            LOGGER.warn("Reload wansubinf data failed, keep current data.", e);
+        }
+    }
+
+    private static String getDeviceIpAddress(String deviceId) throws ServiceException {
         DeviceParam deviceParam = DeviceCommParamReader.getDeviceCommParam(deviceId);
         if(null == deviceParam) {
             LOGGER.error("Current device does not exist");
             throw new ServiceException("Current device does not exist");
         }
 
-        String ipAddress = deviceParam.getIpAddress();
+        return deviceParam.getIpAddress();
+    }
 
-        if(deviceIdToWanSubInfConfigData.isEmpty()) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                byte[] bytes = Files.readAllBytes(Paths.get(WAN_SUB_INTERFACE_FILE));
-                List<WanSubInfConfigData> wanSubInfConfigList =
-                        mapper.readValue(bytes, new TypeReference<List<WanSubInfConfigData>>() {});
-                for(WanSubInfConfigData wanSubInfConfigData : wanSubInfConfigList) {
-                    deviceIdToWanSubInfConfigData.put(wanSubInfConfigData.getIpAddress(), wanSubInfConfigData);
-                }
-            } catch(IOException e) {
-                LOGGER.warn("Failed to query wansubinf data", e);
-                throw new ServiceException("Failed to query wansubinf data");
-            }
+    private static WanSubInfIndex getIndex() throws ServiceException {
+        WanSubInfIndex index = wanSubInfIndex;
+        if(null == index) {
+            index = readIndex();
+            wanSubInfIndex = index;
         }
+        return index;
+    }
 
-        if(deviceIdToWanSubInfConfigData.containsKey(ipAddress)) {
-            return deviceIdToWanSubInfConfigData.get(ipAddress).getWanSubInf();
+    private static WanSubInfIndex readIndex() throws ServiceException {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            byte[] bytes = Files.readAllBytes(Paths.get(WAN_SUB_INTERFACE_FILE));
+            List<WanSubInfConfigData> wanSubInfConfigList =
+                    mapper.readValue(bytes, new TypeReference<List<WanSubInfConfigData>>() {});
+            return new WanSubInfIndex(wanSubInfConfigList);
+        } catch(IOException e) {
+            LOGGER.warn("Failed to query wansubinf data", e);
+            throw new ServiceException("Failed to query wansubinf data");
         }
-
-        return wanSubInfList;
     }
-
 }
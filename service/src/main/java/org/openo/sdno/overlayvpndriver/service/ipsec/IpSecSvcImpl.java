@@ -24,9 +24,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.codehaus.jackson.type.TypeReference;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
-import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
 import org.openo.sdno.overlayvpn.result.ResultRsp;
 import org.openo.sdno.overlayvpn.result.SvcExcptUtil;
@@ -94,10 +92,8 @@ public class IpSecSvcImpl {
                 // query from controller
                 ResultRsp<List<NetIpSecModel>> result =
                         queryIpSecFromController(ctrlUuid, deviceId, netIpSecModel.getInterfaceName(), null);
-                List<NetIpSecModel> refreshedList = JsonUtil.fromJson(JsonUtil.toJson(result.getData()),
-                        new TypeReference<List<NetIpSecModel>>() {});
                 // generate seqNumber
-                generateIpSecSeqNumber(netIpSecModel, refreshedList);
+                generateIpSecSeqNumber(netIpSecModel, result.getData());
             }
 
             // send to controller
@@ -156,7 +152,7 @@ public class IpSecSvcImpl {
             }
 
             List<NetIpSecConn> netIpSecConnList = new ArrayList<NetIpSecConn>();
-            netIpSecModel = JsonUtil.fromJson(JsonUtil.toJson(result.getData().get(0)), NetIpSecModel.class);
+            netIpSecModel = result.getData().get(0);
             for(NetIpSecConn netIpSecConn : netIpSecModel.getIpsecConnection()) {
                 if(seqNumber.equals(String.valueOf(netIpSecConn.getSeqNumber()))) {
                     netIpSecConnList.add(netIpSecConn);
@@ -269,8 +265,7 @@ public class IpSecSvcImpl {
 
         ResultRsp<NetIpSecModel> resultRsp = new ResultRsp<NetIpSecModel>(ErrorCode.OVERLAYVPN_SUCCESS);
         if(CollectionUtils.isNotEmpty(data)) {
-            NetIpSecModel retNetIpSecModel = JsonUtil.fromJson(JsonUtil.toJson(data.get(0)), NetIpSecModel.class);
-            netIpSecModel.setUuid(retNetIpSecModel.getUuid());
+            netIpSecModel.setUuid(data.get(0).getUuid());
         }
 
         resultRsp.setData(netIpSecModel);
@@ -19,9 +19,7 @@ package org.openo.sdno.overlayvpndriver.service.vxlan;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
-import org.codehaus.jackson.type.TypeReference;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
-import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
 import org.openo.sdno.overlayvpn.result.ResultRsp;
 import org.openo.sdno.overlayvpn.result.SvcExcptUtil;
@@ -150,9 +148,7 @@ public class VxLanSvcImpl {
 
     private void insertData(String deviceId, List<NetVxLanDeviceModel> netVxLanDeviceModelList)
             throws ServiceException {
-        List<NetVxLanDeviceModel> refreshedList = JsonUtil.fromJson(JsonUtil.toJson(netVxLanDeviceModelList),
-                new TypeReference<List<NetVxLanDeviceModel>>() {});
-        for(NetVxLanDeviceModel netVxLanDeviceModel : refreshedList) {
+        for(NetVxLanDeviceModel netVxLanDeviceModel : netVxLanDeviceModelList) {
             String externalId = netVxLanDeviceModel.getUuid();
             String vxLanInstanceId = netVxLanDeviceModel.getName();
             VxLanExternalIdMapping vxLanExternalIdMapping =
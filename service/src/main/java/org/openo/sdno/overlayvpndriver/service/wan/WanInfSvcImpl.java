@@ -22,10 +22,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.codehaus.jackson.type.TypeReference;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.consts.CommConst;
@@ -40,7 +40,9 @@ import org.openo.sdno.overlayvpndriver.model.wan.NetWanSubInterfaceIp;
 import org.openo.sdno.overlayvpndriver.sbi.wan.WanSubInfSbi;
 import org.openo.sdno.overlayvpndriver.util.config.WanInterface;
 import org.openo.sdno.overlayvpndriver.util.consts.ControllerUrlConst;
+import org.openo.sdno.overlayvpndriver.util.controller.ControllerPagedQuery;
 import org.openo.sdno.overlayvpndriver.util.controller.ControllerUtil;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
 import org.openo.sdno.util.http.HTTPReturnMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,40 +91,29 @@ public class WanInfSvcImpl {
             SvcExcptUtil.throwBadRequestException("queryWanInterface, param deviceId err");
         }
 
-        // get from controller firstly
-        ResultRsp<List<WanSubInterface>> queryRsp = queryWanSubIf(ctrlUuid, deviceId);
-        if(CollectionUtils.isEmpty(queryRsp.getData())) {
-            LOGGER.error("queryWanInterface from AC error");
-            SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, "queryWanInterface from AC error",
-                    null, null, null);
-        }
-
         // return directly if type is ALL
         if(WanInterfaceUsedType.ALL.getName().equals(type)) {
+            ResultRsp<List<WanSubInterface>> queryRsp = queryWanSubIf(ctrlUuid, deviceId);
+            if(CollectionUtils.isEmpty(queryRsp.getData())) {
+                LOGGER.error("queryWanInterface from AC error");
+                SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED,
+                        "queryWanInterface from AC error", null, null, null);
+            }
             return queryRsp.getData();
         }
 
         // get configuration by type
-        String vlanId = WanInterface.getConfig(type);
+        Integer vlanId = WanInterface.getVlanId(type);
 
         LOGGER.info("queryWanInterface type: " + type + ", usedVlan: " + vlanId);
 
-        if(StringUtils.isEmpty(vlanId)) {
+        if(null == vlanId) {
             String errInfo = "queryWanInterface can't get type[" + type + "] from configuration";
             LOGGER.error(errInfo);
             SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errInfo, null, null, null);
         }
 
-        List<WanSubInterface> refreshedList =
-                JsonUtil.fromJson(JsonUtil.toJson(queryRsp.getData()), new TypeReference<List<WanSubInterface>>() {});
-
-        WanSubInterface wanSubInterface = null;
-        for(WanSubInterface tempWanSubInterface : refreshedList) {
-            if(vlanId.equals(String.valueOf(tempWanSubInterface.getCeLowVlan()))) {
-                wanSubInterface = tempWanSubInterface;
-                break;
-            }
-        }
+        WanSubInterface wanSubInterface = wanSubInfSbi.queryByVlan(ctrlUuid, deviceId, vlanId);
 
         if(null == wanSubInterface) {
             String errInfo = "queryWanInterface can't match the WanInterface type: " + type;
@@ -169,7 +160,7 @@ public class WanInfSvcImpl {
         long beginTime = System.currentTimeMillis();
 
         // query port from AC
-        NetAcDevicePort netAcDevicePort = queryPorts(Arrays.asList(type), deviceId, ctrlUuid).get(0);
+        NetAcDevicePort netAcDevicePort = queryFirstPort(type, deviceId, ctrlUuid);
         if((null != netAcDevicePort) && (StringUtils.isNotEmpty(netAcDevicePort.getIpv6Addr())
                 || StringUtils.isNotEmpty(netAcDevicePort.getIpAddr()))) {
             return convertPortToWanSub(netAcDevicePort);
@@ -185,9 +176,10 @@ public class WanInfSvcImpl {
         NetAcDevicePort queryPort = null;
 
         for(int i = 0; i < QUERY_TIME; i++) {
-            List<NetAcDevicePort> portList = queryPorts(Arrays.asList(type), deviceId, ctrlUuid);
-            if(CollectionUtils.isNotEmpty(portList) && StringUtils.isNotEmpty(portList.get(0).getIpAddr())) {
+            NetAcDevicePort port = queryFirstPort(type, deviceId, ctrlUuid);
+            if(null != port && StringUtils.isNotEmpty(port.getIpAddr())) {
                 bExistedIp = true;
+                queryPort = port;
                 break;
             }
 
@@ -205,11 +197,26 @@ public class WanInfSvcImpl {
         return convertPortToWanSub(queryPort);
     }
 
-    private List<NetAcDevicePort> queryPorts(List<String> interfaceNameList, String deviceId, String ctrlUuid)
+    /**
+     * Query only the first port, the pages queried ahead are cancelled once it has arrived.
+     */
+    private NetAcDevicePort queryFirstPort(String interfaceName, String deviceId, String ctrlUuid)
             throws ServiceException {
 
         long beginTime = System.currentTimeMillis();
 
+        String url = getPortsUrl(Arrays.asList(interfaceName), deviceId);
+        try(Stream<NetAcDevicePort> ports =
+                new ControllerPagedQuery<NetAcDevicePort>(ctrlUuid, url, NetAcDevicePort.class).stream()) {
+            return ports.findFirst().orElse(null);
+        } catch(ControllerPagedQuery.PageQueryException e) {
+            throw e.getCause();
+        } finally {
+            LOGGER.info("queryFirstPort cost time = " + (System.currentTimeMillis() - beginTime));
+        }
+    }
+
+    private String getPortsUrl(List<String> interfaceNameList, String deviceId) {
         String url = MessageFormat.format(ControllerUrlConst.QUERY_DEVICE_PORT, deviceId);
 
         if(CollectionUtils.isNotEmpty(interfaceNameList)) {
@@ -225,12 +232,7 @@ public class WanInfSvcImpl {
             url = url.substring(0, url.length() - 1);
         }
 
-        HTTPReturnMessage httpMsg = OverlayVpnDriverProxy.getInstance().sendGetMsg(url, null, ctrlUuid);
-        List<NetAcDevicePort> data = new ControllerUtil<NetAcDevicePort>().checkRsp(httpMsg);
-
-        LOGGER.info("queryPorts cost time = " + (System.currentTimeMillis() - beginTime));
-
-        return data;
+        return url;
     }
 
     private ResultRsp<WanSubInterface> convertPortToWanSub(NetAcDevicePort netAcDevicePort) throws ServiceException {
@@ -270,8 +272,10 @@ public class WanInfSvcImpl {
     }
 
     private void sleep(long time) throws ServiceException {
+        // stop polling once the caller has given up on the request
+        RequestDeadline.check("WanInterfaceDhcp");
         try {
-            Thread.sleep(time);
+            Thread.sleep(RequestDeadline.bound(time));
         } catch(InterruptedException e) {
             LOGGER.error("sleep exception =", e);
             SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, "sleep exception", null, null,
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.config;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watcher of configuration files. <br>
+ * <p>
+ * The directories of the watched files are registered with one WatchService, which is polled by a
+ * daemon thread. Changes are collected for a short time, so that a file written in several steps is
+ * reported once, and the listeners of a changed file are then called on the watcher thread; they are
+ * expected to parse the file and swap in the result, keeping the previous state if it is not valid.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Sep 12, 2016
+ */
+public class ConfigFileWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+    private static final long SETTLE_MILLIS = 200;
+
+    private static final ConfigFileWatcher INSTANCE = new ConfigFileWatcher();
+
+    private final Map<Path, List<Runnable>> fileToListeners = new ConcurrentHashMap<Path, List<Runnable>>();
+
+    private final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();
+
+    private WatchService watchService;
+
+    private ConfigFileWatcher() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread thread = new Thread(this::run, "overlayvpndriver-config-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch(IOException e) {
+            LOGGER.error("Create config file watcher failed, config changes need a restart.", e);
+        }
+    }
+
+    /**
+     * Get instance. <br>
+     *
+     * @return the ConfigFileWatcher instance
+     * @since SDNO 0.5
+     */
+    public static ConfigFileWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Call the listener whenever the file is created or modified. <br>
+     *
+     * @param filePath The file path
+     * @param listener The listener, called on the watcher thread
+     * @since SDNO 0.5
+     */
+    public void watch(String filePath, Runnable listener) {
+        Path file = FileSystems.getDefault().getPath(filePath).toAbsolutePath().normalize();
+        fileToListeners.computeIfAbsent(file, key -> new CopyOnWriteArrayList<Runnable>()).add(listener);
+
+        Path dir = file.getParent();
+        if(null == watchService || null == dir || !watchedDirs.add(dir)) {
+            return;
+        }
+
+        try {
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch(IOException e) {
+            watchedDirs.remove(dir);
+            LOGGER.warn("Watch config directory " + dir + " failed, changes of " + file + " need a restart.", e);
+        }
+    }
+
+    private void run() {
+        while(true) {
+            try {
+                WatchKey key = watchService.take();
+                Set<Path> changedFiles = new LinkedHashSet<Path>();
+                collect(key, changedFiles);
+
+                // Let the writer finish and report every file once
+                Thread.sleep(SETTLE_MILLIS);
+                for(key = watchService.poll(); null != key; key = watchService.poll()) {
+                    collect(key, changedFiles);
+                }
+
+                for(Path file : changedFiles) {
+                    notifyListeners(file);
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changedFiles) {
+        Path dir = (Path)key.watchable();
+        for(WatchEvent<?> event : key.pollEvents()) {
+            if(event.context() instanceof Path) {
+                changedFiles.add(dir.resolve((Path)event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    private void notifyListeners(Path file) {
+        List<Runnable> listeners = fileToListeners.get(file);
+        if(null == listeners) {
+            return;
+        }
+
+        LOGGER.info("Config file " + file + " changed, reload.");
+        for(Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch(RuntimeException e) {
+                LOGGER.error("Reload config file " + file + " failed.", e);
+            }
+        }
+    }
+}
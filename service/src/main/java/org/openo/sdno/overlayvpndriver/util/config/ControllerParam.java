@@ -0,0 +1,363 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+/**
+ * Class of Controller Communication Parameter.<br>
+ * <p>
+ * Fields missing in the configuration file keep the default value set here.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2016-10-8
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ControllerParam {
+
+    @JsonProperty("ip")
+    private String ipAddress;
+
+    private int maxTotal = 64;
+
+    private int maxPerRoute = 32;
+
+    private long validateAfterInactivity = 2000;
+
+    private long connectionTtl = 300000;
+
+    private long idleReaperInterval = 5000;
+
+    private int failureRateThreshold = 50;
+
+    private int slowCallRateThreshold = 80;
+
+    private long slowCallDuration = 10000;
+
+    private int slidingWindowSize = 20;
+
+    private int minimumNumberOfCalls = 10;
+
+    private long waitDurationInOpenState = 30000;
+
+    private int permittedCallsInHalfOpenState = 3;
+
+    private int retryMaxAttempts = 3;
+
+    private long retryInitialBackoff = 200;
+
+    private long retryMaxBackoff = 2000;
+
+    private long requestDeadline = 60000;
+
+    private int concurrencyInitialLimit = 16;
+
+    private int concurrencyMinLimit = 1;
+
+    private int concurrencyMaxLimit = 32;
+
+    private int concurrencyBackoffPercent = 50;
+
+    private long concurrencyLatencyThreshold = 5000;
+
+    private boolean compressionEnabled = true;
+
+    /**
+     * Request bodies are only compressed for controllers known to accept Content-Encoding gzip.
+     */
+    private boolean requestCompressionEnabled = false;
+
+    private int compressionThreshold = 2048;
+
+    private String transport = "apache";
+
+    private boolean hedgingEnabled = false;
+
+    private int hedgingPercentile = 95;
+
+    private long hedgingMinDelay = 50;
+
+    private long keepAliveInterval = 300000;
+
+    private long maxSessionAge = 1500000;
+
+    /**
+     * Standby nodes of the controller as "ip:port", in failover order.
+     */
+    private List<String> standbyAddresses = new ArrayList<String>();
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(long validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public long getConnectionTtl() {
+        return connectionTtl;
+    }
+
+    public void setConnectionTtl(long connectionTtl) {
+        this.connectionTtl = connectionTtl;
+    }
+
+    public long getIdleReaperInterval() {
+        return idleReaperInterval;
+    }
+
+    public void setIdleReaperInterval(long idleReaperInterval) {
+        this.idleReaperInterval = idleReaperInterval;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(long slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+
+    public long getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public void setWaitDurationInOpenState(long waitDurationInOpenState) {
+        this.waitDurationInOpenState = waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public long getRetryInitialBackoff() {
+        return retryInitialBackoff;
+    }
+
+    public void setRetryInitialBackoff(long retryInitialBackoff) {
+        this.retryInitialBackoff = retryInitialBackoff;
+    }
+
+    public long getRetryMaxBackoff() {
+        return retryMaxBackoff;
+    }
+
+    public void setRetryMaxBackoff(long retryMaxBackoff) {
+        this.retryMaxBackoff = retryMaxBackoff;
+    }
+
+    public long getRequestDeadline() {
+        return requestDeadline;
+    }
+
+    public void setRequestDeadline(long requestDeadline) {
+        this.requestDeadline = requestDeadline;
+    }
+
+    public int getConcurrencyInitialLimit() {
+        return concurrencyInitialLimit;
+    }
+
+    public void setConcurrencyInitialLimit(int concurrencyInitialLimit) {
+        this.concurrencyInitialLimit = concurrencyInitialLimit;
+    }
+
+    public int getConcurrencyMinLimit() {
+        return concurrencyMinLimit;
+    }
+
+    public void setConcurrencyMinLimit(int concurrencyMinLimit) {
+        this.concurrencyMinLimit = concurrencyMinLimit;
+    }
+
+    public int getConcurrencyMaxLimit() {
+        return concurrencyMaxLimit;
+    }
+
+    public void setConcurrencyMaxLimit(int concurrencyMaxLimit) {
+        this.concurrencyMaxLimit = concurrencyMaxLimit;
+    }
+
+    public int getConcurrencyBackoffPercent() {
+        return concurrencyBackoffPercent;
+    }
+
+    public void setConcurrencyBackoffPercent(int concurrencyBackoffPercent) {
+        this.concurrencyBackoffPercent = concurrencyBackoffPercent;
+    }
+
+    public long getConcurrencyLatencyThreshold() {
+        return concurrencyLatencyThreshold;
+    }
+
+    public void setConcurrencyLatencyThreshold(long concurrencyLatencyThreshold) {
+        this.concurrencyLatencyThreshold = concurrencyLatencyThreshold;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public boolean isRequestCompressionEnabled() {
+        return requestCompressionEnabled;
+    }
+
+    public void setRequestCompressionEnabled(boolean requestCompressionEnabled) {
+        this.requestCompressionEnabled = requestCompressionEnabled;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public int getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    public void setHedgingPercentile(int hedgingPercentile) {
+        this.hedgingPercentile = hedgingPercentile;
+    }
+
+    public long getHedgingMinDelay() {
+        return hedgingMinDelay;
+    }
+
+    public void setHedgingMinDelay(long hedgingMinDelay) {
+        this.hedgingMinDelay = hedgingMinDelay;
+    }
+
+    public long getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    public void setKeepAliveInterval(long keepAliveInterval) {
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    public long getMaxSessionAge() {
+        return maxSessionAge;
+    }
+
+    public void setMaxSessionAge(long maxSessionAge) {
+        this.maxSessionAge = maxSessionAge;
+    }
+
+    public List<String> getStandbyAddresses() {
+        return standbyAddresses;
+    }
+
+    public void setStandbyAddresses(List<String> standbyAddresses) {
+        this.standbyAddresses = standbyAddresses;
+    }
+}
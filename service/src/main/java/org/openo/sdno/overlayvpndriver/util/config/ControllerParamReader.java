@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Get controller communication parameter configuration. <br>
+ * <p>
+ * The entry whose ip is "default" applies to every controller without its own entry.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 2016-10-8
+ */
+public class ControllerParamReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControllerParamReader.class);
+
+    private static final String CFG_FILE_PATH = "generalconfig/controllerparam.json";
+
+    private static final String DEFAULT_IP = "default";
+
+    /**
+     * Constructor<br>
+     *
+     * @since SDNO 0.5
+     */
+    private ControllerParamReader() {
+    }
+
+    /**
+     * Get Controller Communication Parameter by controller ip address.<br>
+     *
+     * @param ipAddress controller ip address
+     * @return controller communication parameter, never null
+     * @since SDNO 0.5
+     */
+    public static ControllerParam getControllerParam(String ipAddress) {
+        Map<String, ControllerParam> ipToParamMap = ParamHolder.IP_TO_PARAM_MAP;
+
+        ControllerParam param = ipToParamMap.get(ipAddress);
+        if(null == param) {
+            param = ipToParamMap.get(DEFAULT_IP);
+        }
+
+        return (null == param) ? new ControllerParam() : param;
+    }
+
+    private static Map<String, ControllerParam> readParams() {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            byte[] bytes = Files.readAllBytes(Paths.get(CFG_FILE_PATH));
+            List<ControllerParam> paramList = mapper.readValue(bytes, new TypeReference<List<ControllerParam>>() {});
+            Map<String, ControllerParam> ipToParamMap = new HashMap<String, ControllerParam>();
+            for(ControllerParam param : paramList) {
+                ipToParamMap.put(param.getIpAddress(), param);
+            }
+            return Collections.unmodifiableMap(ipToParamMap);
+        } catch(IOException e) {
+            LOGGER.warn("Read controller param failed, use default.", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Loads the configuration once, on first use.
+     */
+    private static class ParamHolder {
+
+        private static final Map<String, ControllerParam> IP_TO_PARAM_MAP = readParams();
+    }
+}
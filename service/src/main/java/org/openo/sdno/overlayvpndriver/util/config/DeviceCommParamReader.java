@@ -19,9 +19,12 @@ package org.openo.sdno.overlayvpndriver.util.config;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -34,6 +37,14 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Get device communication parameter configuration. <br>
+ * <p>
+ * The address of a device is cached by its native id, so that the inventory is not
+ * queried for every request; entries expire after a TTL so that a changed device address is picked
+ * up, and can be invalidated when a device is known to have changed. The configuration file is
+ * watched; a changed file is parsed in background into a new immutable snapshot that replaces the
+ * previous one at once, readers never wait for it. As long as no snapshot could be loaded, the file is
+ * read again on access.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 Jul 21, 2016
@@ -44,7 +55,21 @@ public class DeviceCommParamReader {
 
     private static final String CFG_FILE_PATH = "device/deviceparam.json";
 
-    private static Map<String, DeviceParam> deviceIdToCommParamMap = new HashMap<String, DeviceParam>();
+    private static final long CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final String NATIVE_ID = "nativeID";
+
+    /**
+     * Snapshot of the configuration file, null until it was read successfully.
+     */
+    private static volatile Map<String, DeviceParam> ipToParamMap = null;
+
+    private static final Map<String, CacheEntry> NATIVE_ID_TO_ADDRESS = new ConcurrentHashMap<String, CacheEntry>();
+
+    static {
+        reload();
+        ConfigFileWatcher.getInstance().watch(CFG_FILE_PATH, DeviceCommParamReader::reload);
+    }
 
     /**
      * Constructor<br>
@@ -57,17 +82,21 @@ public class DeviceCommParamReader {
     /**
      * Get Device Communication Parameter by device id.<br>
      * 
-     * @param ipAddress device ipAddress
-     * @return device communication parameter
-     * @throws ServiceException when get communication parameter
+     * @param deviceId device native id
+     * @return device communication parameter, null if the device address is not configured
+     * @throws ServiceException when the device does not exist
      * @since SDNO 0.5
      */
-    public static synchronized DeviceParam getDeviceCommParam(String deviceId) throws ServiceException {
+    public static DeviceParam getDeviceCommParam(String deviceId) throws ServiceException {
+        CacheEntry entry = NATIVE_ID_TO_ADDRESS.get(deviceId);
+        if(null != entry && !entry.isExpired()) {
+            return getDeviceCommParamByIpAddress(entry.ipAddress);
+        }
 
         // Query device ipAddress by native id
         NetworkElementInvDao neInvDao = new NetworkElementInvDao();
         Map<String, String> queryMap = new HashMap<String, String>();
-        queryMap.put("nativeID", deviceId);
+        queryMap.put(NATIVE_ID, deviceId);
         List<NetworkElementMO> networkElementList = neInvDao.query(queryMap);
 
         if(CollectionUtils.isEmpty(networkElementList)) {
@@ -76,27 +105,88 @@ public class DeviceCommParamReader {
         }
 
         String ipAddress = networkElementList.get(0).getIpAddress();
+        NATIVE_ID_TO_ADDRESS.put(deviceId, new CacheEntry(ipAddress));
         return getDeviceCommParamByIpAddress(ipAddress);
     }
 
-    private static synchronized DeviceParam getDeviceCommParamByIpAddress(String ipAddress) {
-
-        if(deviceIdToCommParamMap.isEmpty()) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                byte[] bytes = Files.readAllBytes(Paths.get(CFG_FILE_PATH));
-                List<DeviceParam> deviceCommParamList =
-                        mapper.readValue(bytes, new TypeReference<List<DeviceParam>>() {});
-                for(DeviceParam deviceCommParam : deviceCommParamList) {
-                    deviceIdToCommParamMap.put(deviceCommParam.getIpAddress(), deviceCommParam);
-                }
-            } catch(IOException e) {
-                LOGGER.error("Read device comm param failed.");
+    /**
+     * Invalidate the cached address of one device. <br>
+     *
+     * @param deviceId device native id
+     * @since SDNO 0.5
+     */
+    public static void invalidate(String deviceId) {
+        if(null != deviceId) {
+            NATIVE_ID_TO_ADDRESS.remove(deviceId);
+        }
+    }
+
+    /**
+     * Invalidate the cached addresses of all devices. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public static void invalidateAll() {
+        NATIVE_ID_TO_ADDRESS.clear();
+    }
+
+    /**
+     * Read the configuration file again and replace the parameters of all devices. <br>
+     * <p>
+     * When the file can not be read the current parameters are kept.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    public static void reload() {
+        Map<String, DeviceParam> params = readParams();
+        if(null != params) {
+            ipToParamMap = params;
+            LOGGER.info("Device comm params loaded, count: " + params.size());
+        }
+    }
+
+    private static DeviceParam getDeviceCommParamByIpAddress(String ipAddress) {
+        Map<String, DeviceParam> params = ipToParamMap;
+        if(null == params) {
+            params = readParams();
+            if(null == params) {
                 return null;
             }
+            ipToParamMap = params;
         }
+        return params.get(ipAddress);
+    }
 
-        return deviceIdToCommParamMap.get(ipAddress);
+    private static Map<String, DeviceParam> readParams() {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            byte[] bytes = Files.readAllBytes(Paths.get(CFG_FILE_PATH));
+            List<DeviceParam> deviceCommParamList = mapper.readValue(bytes, new TypeReference<List<DeviceParam>>() {});
+            Map<String, DeviceParam> params = new HashMap<String, DeviceParam>();
+            for(DeviceParam deviceCommParam : deviceCommParamList) {
+                params.put(deviceCommParam.getIpAddress(), deviceCommParam);
+            }
+            return Collections.unmodifiableMap(params);
+        } catch(IOException e) {
+            LOGGER.error("Read device comm param failed.");
+            return null;
+        }
     }
 
+    private static class CacheEntry {
+
+        private final String ipAddress;
+
+        private final long expireNanos;
+
+        CacheEntry(String ipAddress) {
+            this.ipAddress = ipAddress;
+            this.expireNanos = System.nanoTime() + CACHE_TTL_NANOS;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expireNanos >= 0;
+        }
+    }
 }
@@ -26,6 +26,11 @@ import org.codehaus.jackson.annotate.JsonProperty;
  */
 public class DeviceParam {
 
+    /**
+     * Default time budget of a script execution in milliseconds, used when the request has no deadline.
+     */
+    public static final long DEFAULT_TIMEOUT = 60000L;
+
     @JsonProperty("devicetype")
     private String deviceType;
 
@@ -39,6 +44,8 @@ public class DeviceParam {
 
     private String password;
 
+    private long timeout = DEFAULT_TIMEOUT;
+
     public String getDeviceType() {
         return deviceType;
     }
@@ -78,4 +85,12 @@ public class DeviceParam {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
 }
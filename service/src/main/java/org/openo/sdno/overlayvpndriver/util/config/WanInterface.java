@@ -19,6 +19,8 @@ package org.openo.sdno.overlayvpndriver.util.config;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +31,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Get WanInterface configuration. <br>
+ * <p>
+ * The configuration file is loaded once into an index of key to value, with the values that are
+ * VLAN ids also indexed as integers, and loaded again by the ConfigFileWatcher when it changes, so
+ * lookups need no file access. A file that can not be read keeps the previous index.
+ * </p>
  * 
  * @author
  * @version SDNO 0.5 Jul 21, 2016
@@ -41,7 +48,13 @@ public class WanInterface {
 
     private static final String CFG_VALUE = "cfgvalue";
 
-    private static final String DOMAIN = "config";
+    private static final String CFG_FILE_PATH = "generalconfig/config.json";
+
+    private static volatile ConfigIndex configIndex;
+
+    static {
+        ConfigFileWatcher.getInstance().watch(CFG_FILE_PATH, WanInterface::reload);
+    }
 
     /**
      * Constructor<br>
@@ -60,31 +73,84 @@ public class WanInterface {
      * @since SDNO 0.5
      */
     public static String getConfig(String cfgKey) throws ServiceException {
-        List<Map<String, String>> values = getJsonFileData(DOMAIN);
-        return getCfgValue(values, cfgKey);
+        return getConfigIndex().values.get(cfgKey);
     }
 
-    private static String getCfgValue(List<Map<String, String>> values, String cfgKey) {
-        String result = null;
-        for(Map<String, String> value : values) {
-            String cfgKeyValue = value.get(CFG_KEY);
-            if((cfgKeyValue != null) && cfgKeyValue.equals(cfgKey)) {
-                result = value.get(CFG_VALUE);
-                break;
-            }
+    /**
+     * It is used to get the VLAN id configured for a WAN interface type. <br>
+     *
+     * @param cfgKey The configuration key, the WAN interface type
+     * @return The VLAN id, null if not configured or not a number
+     * @throws ServiceException when get failed
+     * @since SDNO 0.5
+     */
+    public static Integer getVlanId(String cfgKey) throws ServiceException {
+        return getConfigIndex().vlanIds.get(cfgKey);
+    }
+
+    /**
+     * Read the configuration file again. <br>
+     * <p>
+     * When the file can not be read the current configuration is kept.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    public static void reload() {
+        try {
+            configIndex = readConfig();
+        } catch(ServiceException e) {
+            LOGGER.warn("Reload config.json failed, keep current config.", e);
         }
+    }
 
-        return result;
+    private static ConfigIndex getConfigIndex() throws ServiceException {
+        ConfigIndex index = configIndex;
+        if(null == index) {
+            index = readConfig();
+            configIndex = index;
+        }
+        return index;
     }
 
-    private static List<Map<String, String>> getJsonFileData(String domain) throws ServiceException {
+    @SuppressWarnings("unchecked")
+    private static ConfigIndex readConfig() throws ServiceException {
         try {
             ObjectMapper mapper = new ObjectMapper();
-            byte[] bytes = Files.readAllBytes(Paths.get("generalconfig/config.json"));
-            return mapper.readValue(bytes, List.class);
+            byte[] bytes = Files.readAllBytes(Paths.get(CFG_FILE_PATH));
+            return new ConfigIndex(mapper.readValue(bytes, List.class));
         } catch(IOException e) {
             LOGGER.warn("Get json file failed!" + e);
             throw new ServiceException("Get config.json Filed");
         }
     }
+
+    /**
+     * Immutable index of one version of the configuration file.
+     */
+    private static class ConfigIndex {
+
+        private final Map<String, String> values;
+
+        private final Map<String, Integer> vlanIds;
+
+        ConfigIndex(List<Map<String, String>> entries) {
+            Map<String, String> valueMap = new HashMap<String, String>();
+            Map<String, Integer> vlanIdMap = new HashMap<String, Integer>();
+            for(Map<String, String> entry : entries) {
+                String cfgKey = entry.get(CFG_KEY);
+                if(null == cfgKey || valueMap.containsKey(cfgKey)) {
+                    continue;
+                }
+
+                String cfgValue = entry.get(CFG_VALUE);
+                valueMap.put(cfgKey, cfgValue);
+                if(null != cfgValue && cfgValue.matches("\\d{1,9}")) {
+                    vlanIdMap.put(cfgKey, Integer.valueOf(cfgValue));
+                }
+            }
+            this.values = Collections.unmodifiableMap(valueMap);
+            this.vlanIds = Collections.unmodifiableMap(vlanIdMap);
+        }
+    }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverAsyncProxy;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverProxy;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverResponse;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+/**
+ * Paged query of a controller listing. <br>
+ * <p>
+ * The first page is queried when the iteration starts; when its totalRecords exceed the records
+ * returned, the further pages are queried concurrently through the non-blocking proxy, at most the given
+ * number at a time and within the deadline of the iterating thread, and their records are delivered in
+ * page order as soon as each page has arrived. A controller that answers without paging fields is read as
+ * one page.
+ * </p>
+ *
+ * @param <T> Net Model Class
+ * @author
+ * @version SDNO 0.5 Sep 8, 2016
+ */
+public class ControllerPagedQuery<T> implements Iterable<T> {
+
+    public static final String PAGE_INDEX = "pageIndex";
+
+    public static final String PAGE_SIZE = "pageSize";
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final String ctrlUuid;
+
+    private final String url;
+
+    private final int pageSize;
+
+    private final int concurrency;
+
+    private final ControllerUtil<T> controllerUtil;
+
+    /**
+     * Constructor<br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @param url The listing URL, may already carry query parameters
+     * @param elementType The class of the records
+     * @since SDNO 0.5
+     */
+    public ControllerPagedQuery(String ctrlUuid, String url, Class<T> elementType) {
+        this(ctrlUuid, url, elementType, DEFAULT_PAGE_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Constructor<br>
+     *
+     * @param ctrlUuid The controller UUID
+     * @param url The listing URL, may already carry query parameters
+     * @param elementType The class of the records
+     * @param pageSize The number of records requested per page
+     * @param concurrency The maximum number of pages queried at a time
+     * @since SDNO 0.5
+     */
+    public ControllerPagedQuery(String ctrlUuid, String url, Class<T> elementType, int pageSize, int concurrency) {
+        this.ctrlUuid = ctrlUuid;
+        this.url = url;
+        this.pageSize = Math.max(1, pageSize);
+        this.concurrency = Math.max(1, concurrency);
+        this.controllerUtil = new ControllerUtil<T>(elementType);
+    }
+
+    /**
+     * Iterate the records of all pages. <br>
+     * <p>
+     * A failed page query ends the iteration with a PageQueryException holding the ServiceException.
+     * </p>
+     *
+     * @return iterator over the records
+     * @since SDNO 0.5
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Stream the records of all pages, see iterator(). <br>
+     * <p>
+     * Closing the stream cancels the pages queried ahead, so a consumer that stops early, e.g. with
+     * findFirst, should close it.
+     * </p>
+     *
+     * @return sequential stream of the records
+     * @since SDNO 0.5
+     */
+    public Stream<T> stream() {
+        PageIterator iterator = new PageIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Query the records of all pages. <br>
+     *
+     * @return all records
+     * @throws ServiceException when a page query failed
+     * @since SDNO 0.5
+     */
+    public List<T> toList() throws ServiceException {
+        List<T> records = new ArrayList<T>();
+        try {
+            for(T element : this) {
+                records.add(element);
+            }
+        } catch(PageQueryException e) {
+            throw e.getCause();
+        }
+        return records;
+    }
+
+    String getPageUrl(int pageIndex) {
+        char separator = (url.indexOf('?') < 0) ? '?' : '&';
+        return url + separator + PAGE_INDEX + '=' + pageIndex + '&' + PAGE_SIZE + '=' + pageSize;
+    }
+
+    private HTTPReturnMessage queryPage(int pageIndex) throws ServiceException {
+        return OverlayVpnDriverProxy.getInstance().sendGetMsg(getPageUrl(pageIndex), ctrlUuid,
+                controllerUtil.getResponseType());
+    }
+
+    /**
+     * Iterator fetching the pages ahead of the consumer. <br>
+     */
+    private class PageIterator implements Iterator<T> {
+
+        private final Deque<CompletableFuture<List<T>>> pending = new ArrayDeque<CompletableFuture<List<T>>>();
+
+        private Iterator<T> current = Collections.<T> emptyList().iterator();
+
+        private int pageCount = -1;
+
+        private int nextPage = 1;
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while(!current.hasNext()) {
+                    if(pageCount < 0) {
+                        current = queryFirstPage().iterator();
+                    } else if(pending.isEmpty()) {
+                        return false;
+                    } else {
+                        current = await(pending.poll()).iterator();
+                    }
+                    queryAhead();
+                }
+                return true;
+            } catch(PageQueryException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private List<T> queryFirstPage() {
+            try {
+                HTTPReturnMessage httpMsg = queryPage(nextPage++);
+                List<T> data = controllerUtil.checkRsp(httpMsg);
+                int size = (null == data) ? 0 : data.size();
+
+                OverlayVpnDriverResponse<?> paging = ControllerUtil.getPaging(httpMsg);
+                if(null == paging || paging.getPageSize() <= 0 || paging.getTotalRecords() <= size) {
+                    pageCount = 1;
+                } else {
+                    pageCount = (paging.getTotalRecords() + paging.getPageSize() - 1) / paging.getPageSize();
+                }
+                return (null == data) ? Collections.<T> emptyList() : data;
+            } catch(ServiceException e) {
+                throw new PageQueryException(e);
+            }
+        }
+
+        private void queryAhead() {
+            while(pending.size() < concurrency && nextPage <= pageCount) {
+                pending.add(OverlayVpnDriverAsyncProxy.getInstance().sendGetMsg(getPageUrl(nextPage++), null, ctrlUuid)
+                        .thenApply(httpMsg -> {
+                            try {
+                                return controllerUtil.checkRsp(httpMsg);
+                            } catch(ServiceException e) {
+                                throw new CompletionException(e);
+                            }
+                        }));
+            }
+        }
+
+        /**
+         * Stop the iteration, the pages queried ahead are cancelled and their records dropped.
+         */
+        void close() {
+            pageCount = 0;
+            current = Collections.<T> emptyList().iterator();
+            for(CompletableFuture<List<T>> page : pending) {
+                page.cancel(false);
+            }
+            pending.clear();
+        }
+
+        private List<T> await(CompletableFuture<List<T>> page) {
+            try {
+                List<T> data = page.get(RequestDeadline.remainingMillis(), TimeUnit.MILLISECONDS);
+                return (null == data) ? Collections.<T> emptyList() : data;
+            } catch(TimeoutException e) {
+                throw new PageQueryException(
+                        new ServiceException(ErrorCode.OVERLAYVPN_FAILED, "Paged query timed out: " + url));
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PageQueryException(
+                        new ServiceException(ErrorCode.OVERLAYVPN_FAILED, "Paged query interrupted: " + url));
+            } catch(ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new PageQueryException((cause instanceof ServiceException) ? (ServiceException)cause
+                        : new ServiceException(ErrorCode.OVERLAYVPN_FAILED, "Paged query failed: " + url));
+            }
+        }
+    }
+
+    /**
+     * Failure of a page query during the iteration. <br>
+     */
+    public static class PageQueryException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        PageQueryException(ServiceException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ServiceException getCause() {
+            return (ServiceException)super.getCause();
+        }
+    }
+}
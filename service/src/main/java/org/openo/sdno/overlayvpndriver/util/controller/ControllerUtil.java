@@ -16,14 +16,21 @@
 
 package org.openo.sdno.overlayvpndriver.util.controller;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.type.TypeFactory;
+import org.codehaus.jackson.type.JavaType;
 import org.codehaus.jackson.type.TypeReference;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
 import org.openo.sdno.overlayvpn.result.SvcExcptUtil;
+import org.openo.sdno.overlayvpndriver.login.DecodedReturnMessage;
 import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverResponse;
 import org.openo.sdno.util.http.HTTPReturnMessage;
 import org.slf4j.Logger;
@@ -40,6 +47,50 @@ public class ControllerUtil<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ControllerUtil.class);
 
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Class<T> elementType;
+
+    /**
+     * Constructor<br>
+     * <p>
+     * Without element type the data elements are decoded as maps.
+     * </p>
+     *
+     * @since SDNO 0.5
+     */
+    public ControllerUtil() {
+        this(null);
+    }
+
+    /**
+     * Constructor<br>
+     * <p>
+     * The data elements returned by checkRsp are instances of the element type, so callers need
+     * no further conversion.
+     * </p>
+     *
+     * @param elementType The class of the data elements
+     * @since SDNO 0.5
+     */
+    public ControllerUtil(Class<T> elementType) {
+        this.elementType = elementType;
+    }
+
+    /**
+     * Get the Jackson type of the controller response, used to decode the response stream. <br>
+     *
+     * @return type of OverlayVpnDriverResponse with list of the element type
+     * @since SDNO 0.5
+     */
+    public JavaType getResponseType() {
+        TypeFactory typeFactory = TypeFactory.defaultInstance();
+        Class<?> dataClass = (null == elementType) ? Object.class : elementType;
+        return typeFactory.constructParametricType(OverlayVpnDriverResponse.class,
+                typeFactory.constructCollectionType(List.class, dataClass));
+    }
+
     /**
      * It used to check the response and return the data. <br>
      * 
@@ -48,17 +99,23 @@ public class ControllerUtil<T> {
      * @throws ServiceException When controller return failed
      * @since SDNO 0.5
      */
+    @SuppressWarnings("unchecked")
     public List<T> checkRsp(HTTPReturnMessage httpMsg) throws ServiceException {
         String body = httpMsg.getBody();
+        Object decoded = (httpMsg instanceof DecodedReturnMessage) ? ((DecodedReturnMessage<?>)httpMsg).getDecoded()
+                : null;
 
-        if(!httpMsg.isSuccess() || StringUtils.isEmpty(body)) {
-            String errMsg = "checkRsp AC return error, status: " + httpMsg.getStatus();
+        if(!httpMsg.isSuccess() || (null == decoded && StringUtils.isEmpty(body))) {
+            String decodeError = (httpMsg instanceof DecodedReturnMessage)
+                    ? ((DecodedReturnMessage<?>)httpMsg).getDecodeError() : null;
+            String errMsg = "checkRsp AC return error, status: " + httpMsg.getStatus()
+                    + ((null == decodeError) ? "" : ", invalid body: " + decodeError);
             LOGGER.error(errMsg);
             SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
         }
 
-        OverlayVpnDriverResponse<List<T>> overlayVpnResponse =
-                JsonUtil.fromJson(body, new TypeReference<OverlayVpnDriverResponse<List<T>>>() {});
+        OverlayVpnDriverResponse<List<T>> overlayVpnResponse = (null != decoded)
+                ? (OverlayVpnDriverResponse<List<T>>)decoded : decodeBody(body);
         if(!overlayVpnResponse.isSucess()) {
             String errMsg = "checkRsp AC return error, errCode: " + overlayVpnResponse.getErrcode() + ", errMsg: "
                     + overlayVpnResponse.getErrmsg();
@@ -68,4 +125,51 @@ public class ControllerUtil<T> {
 
         return overlayVpnResponse.getData();
     }
+
+    /**
+     * Get the paging fields of a controller response. <br>
+     *
+     * @param httpMsg The response of HTTP
+     * @return response holding pageIndex, pageSize and totalRecords, null when the body is not readable
+     * @since SDNO 0.5
+     */
+    public static OverlayVpnDriverResponse<?> getPaging(HTTPReturnMessage httpMsg) {
+        if(httpMsg instanceof DecodedReturnMessage) {
+            Object decoded = ((DecodedReturnMessage<?>)httpMsg).getDecoded();
+            if(decoded instanceof OverlayVpnDriverResponse) {
+                return (OverlayVpnDriverResponse<?>)decoded;
+            }
+        }
+
+        if(StringUtils.isEmpty(httpMsg.getBody())) {
+            return null;
+        }
+
+        try {
+            JsonNode root = MAPPER.readTree(httpMsg.getBody());
+            OverlayVpnDriverResponse<Object> paging = new OverlayVpnDriverResponse<Object>();
+            paging.setPageIndex(root.path(ControllerPagedQuery.PAGE_INDEX).getIntValue());
+            paging.setPageSize(root.path(ControllerPagedQuery.PAGE_SIZE).getIntValue());
+            paging.setTotalRecords(root.path("totalRecords").getIntValue());
+            return paging;
+        } catch(IOException e) {
+            LOGGER.warn("Read paging of AC response failed.", e);
+            return null;
+        }
+    }
+
+    private OverlayVpnDriverResponse<List<T>> decodeBody(String body) throws ServiceException {
+        if(null == elementType) {
+            return JsonUtil.fromJson(body, new TypeReference<OverlayVpnDriverResponse<List<T>>>() {});
+        }
+
+        try {
+            return MAPPER.readValue(body, getResponseType());
+        } catch(IOException e) {
+            String errMsg = "checkRsp AC return invalid body";
+            LOGGER.error(errMsg, e);
+            SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
+            return null;
+        }
+    }
 }
@@ -24,7 +24,6 @@ import java.util.Map;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
-import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.inventory.sdk.util.InventoryDaoUtil;
 import org.openo.sdno.overlayvpn.result.ResultRsp;
 import org.openo.sdno.overlayvpndriver.model.ipsec.db.IpSecExternalIdMapping;
@@ -100,8 +99,7 @@ public class IpSecDbOper {
             return;
         }
 
-        IpSecExternalIdMapping ipSecExternalIdMapping =
-                JsonUtil.fromJson(JsonUtil.toJson(queryDbRsp.getData().get(0)), IpSecExternalIdMapping.class);
+        IpSecExternalIdMapping ipSecExternalIdMapping = queryDbRsp.getData().get(0);
         new InventoryDaoUtil<IpSecExternalIdMapping>().getInventoryDao().delete(IpSecExternalIdMapping.class,
                 ipSecExternalIdMapping.getUuid());
     }
@@ -24,7 +24,6 @@ import java.util.Map;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
-import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.inventory.sdk.util.InventoryDaoUtil;
 import org.openo.sdno.overlayvpn.result.ResultRsp;
 import org.openo.sdno.overlayvpndriver.model.vxlan.db.VxLanExternalIdMapping;
@@ -83,7 +82,7 @@ public class VxLanDbOper {
             return null;
         }
 
-        return JsonUtil.fromJson(JsonUtil.toJson(queryDbRsp.getData().get(0)), VxLanExternalIdMapping.class);
+        return queryDbRsp.getData().get(0);
     }
 
     /**
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.errorcode.ErrorCode;
+import org.openo.sdno.overlayvpn.result.SvcExcptUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deadline of the northbound request handled by the current thread. <br>
+ * <p>
+ * The deadline is set by RequestDeadlineFilter from the X-Request-Deadline header, an absolute time in
+ * milliseconds since the epoch, and is kept as System.nanoTime value. Service and southbound code use it
+ * to bound socket, connect and poll waits and to stop work the caller no longer waits for. Without
+ * header no deadline is set and every bound is left unchanged.
+ * </p>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 18, 2016
+ */
+public class RequestDeadline {
+
+    /**
+     * Header carrying the deadline of the request.
+     */
+    public static final String HEADER = "X-Request-Deadline";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDeadline.class);
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<Long>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Set the deadline of the current thread. <br>
+     *
+     * @param epochMillis deadline in milliseconds since the epoch
+     * @since SDNO 0.5
+     */
+    public static void set(long epochMillis) {
+        long remainingMillis = epochMillis - System.currentTimeMillis();
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    /**
+     * Set the deadline of the current thread as System.nanoTime value, e.g. one captured in another thread.
+     * <br>
+     *
+     * @param deadlineNanos deadline as System.nanoTime value, null to clear
+     * @since SDNO 0.5
+     */
+    public static void setNanos(Long deadlineNanos) {
+        if(null == deadlineNanos) {
+            DEADLINE_NANOS.remove();
+        } else {
+            DEADLINE_NANOS.set(deadlineNanos);
+        }
+    }
+
+    /**
+     * Clear the deadline of the current thread. <br>
+     *
+     * @since SDNO 0.5
+     */
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * @return deadline of the current thread as System.nanoTime value, null if none is set
+     */
+    public static Long getNanos() {
+        return DEADLINE_NANOS.get();
+    }
+
+    /**
+     * Get the deadline bounded by a default budget starting now. <br>
+     *
+     * @param defaultBudgetMillis budget used when no deadline is set or when it is later
+     * @return deadline as System.nanoTime value
+     * @since SDNO 0.5
+     */
+    public static long getNanos(long defaultBudgetMillis) {
+        long defaultDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(defaultBudgetMillis);
+        Long deadline = DEADLINE_NANOS.get();
+        return (null == deadline || deadline - defaultDeadline > 0) ? defaultDeadline : deadline;
+    }
+
+    /**
+     * @return milliseconds left until the deadline, Long.MAX_VALUE if no deadline is set
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if(null == deadline) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * @return true if a deadline is set and has passed
+     */
+    public static boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Bound a timeout by the time left until the deadline. <br>
+     *
+     * @param timeoutMillis timeout of the operation
+     * @return the smaller of the timeout and the time left, at least 1 millisecond
+     * @since SDNO 0.5
+     */
+    public static long bound(long timeoutMillis) {
+        return Math.max(1, Math.min(timeoutMillis, remainingMillis()));
+    }
+
+    /**
+     * Stop the operation if the deadline has passed. <br>
+     *
+     * @param operation name of the operation, used in the error message
+     * @throws ServiceException When the deadline has passed
+     * @since SDNO 0.5
+     */
+    public static void check(String operation) throws ServiceException {
+        if(isExpired()) {
+            String errMsg = operation + " abandoned, request deadline exceeded";
+            LOGGER.warn(errMsg);
+            SvcExcptUtil.throwInnerErrSvcExptionWithInfo(ErrorCode.OVERLAYVPN_FAILED, errMsg, null, null, null);
+        }
+    }
+}
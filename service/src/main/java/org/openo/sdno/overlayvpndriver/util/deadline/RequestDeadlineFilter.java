@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.deadline;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Servlet filter setting the RequestDeadline of the northbound request from its header. <br>
+ *
+ * @author
+ * @version SDNO 0.5 Aug 18, 2016
+ */
+public class RequestDeadlineFilter implements Filter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // nothing to initialize
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String deadline = (request instanceof HttpServletRequest)
+                ? ((HttpServletRequest)request).getHeader(RequestDeadline.HEADER) : null;
+        if(StringUtils.isNotBlank(deadline)) {
+            try {
+                RequestDeadline.set(Long.parseLong(deadline.trim()));
+            } catch(NumberFormatException e) {
+                LOGGER.warn("Invalid " + RequestDeadline.HEADER + " header: " + deadline, e);
+            }
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+public class AimdConcurrencyLimiterTest {
+
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static HTTPReturnMessage createMsg(int status) {
+        HTTPReturnMessage msg = new HTTPReturnMessage();
+        msg.setStatus(status);
+        return msg;
+    }
+
+    private static AimdConcurrencyLimiter createLimiter() {
+        ControllerParam param = new ControllerParam();
+        param.setConcurrencyInitialLimit(2);
+        param.setConcurrencyMaxLimit(8);
+        return new AimdConcurrencyLimiter(param);
+    }
+
+    @Test
+    public void testWaitAtLimit() {
+        AimdConcurrencyLimiter limiter = createLimiter();
+        assertTrue(limiter.acquire(0));
+        assertTrue(limiter.acquire(0));
+        assertFalse(limiter.acquire(10));
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void testTryAcquireNeverWaits() {
+        AimdConcurrencyLimiter limiter = createLimiter();
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.cancel();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        AimdConcurrencyLimiter limiter = createLimiter();
+        for(int i = 0; i < 20; i++) {
+            limiter.acquire(0);
+            limiter.acquire(0);
+            limiter.release(FAST_NANOS, createMsg(200));
+            limiter.release(FAST_NANOS, createMsg(200));
+        }
+        assertTrue(limiter.getLimit() > 2);
+        assertTrue(limiter.getLimit() <= 8);
+    }
+
+    @Test
+    public void testAcquireAsyncGrantedOnRelease() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AimdConcurrencyLimiter limiter = createLimiter();
+            assertTrue(limiter.acquireAsync(0, timer).get());
+            assertTrue(limiter.acquireAsync(0, timer).get());
+            assertFalse(limiter.acquireAsync(0, timer).get());
+
+            CompletableFuture<Boolean> waiter = limiter.acquireAsync(10000, timer);
+            assertFalse(waiter.isDone());
+            limiter.release(FAST_NANOS, createMsg(200));
+            assertTrue(waiter.get(1, TimeUnit.SECONDS));
+            assertEquals(2, limiter.getInFlight());
+
+            assertFalse(limiter.acquireAsync(10, timer).get(1, TimeUnit.SECONDS));
+            assertEquals(2, limiter.getInFlight());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testQueuedWaiterServedBeforeBlockingAcquire() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final AimdConcurrencyLimiter limiter = createLimiter();
+            assertTrue(limiter.acquire(0));
+            assertTrue(limiter.acquire(0));
+
+            CompletableFuture<Boolean> waiter = limiter.acquireAsync(10000, timer);
+            CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> limiter.acquire(10000));
+            assertFalse(limiter.tryAcquire());
+
+            limiter.release(FAST_NANOS, createMsg(200));
+            assertTrue(waiter.get(1, TimeUnit.SECONDS));
+            assertFalse(blocked.isDone());
+
+            limiter.release(FAST_NANOS, createMsg(200));
+            assertTrue(blocked.get(1, TimeUnit.SECONDS));
+            assertEquals(2, limiter.getInFlight());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() {
+        AimdConcurrencyLimiter limiter = createLimiter();
+        for(int i = 0; i < 40; i++) {
+            limiter.acquire(0);
+            limiter.release(FAST_NANOS, createMsg(200));
+        }
+        limiter.acquire(0);
+        limiter.release(FAST_NANOS, createMsg(200));
+
+        int grownLimit = limiter.getLimit();
+        limiter.acquire(0);
+        limiter.release(FAST_NANOS, createMsg(AimdConcurrencyLimiter.SC_TOO_MANY_REQUESTS));
+        assertTrue(limiter.getLimit() <= Math.max(1, grownLimit / 2));
+
+        limiter.acquire(0);
+        limiter.release(TimeUnit.SECONDS.toNanos(10), createMsg(200));
+        limiter.acquire(0);
+        limiter.release(FAST_NANOS, null);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testCancelKeepsLimit() {
+        AimdConcurrencyLimiter limiter = createLimiter();
+        assertTrue(limiter.acquire(0));
+        limiter.cancel();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+    }
+}
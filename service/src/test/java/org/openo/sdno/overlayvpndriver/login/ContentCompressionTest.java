@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+public class ContentCompressionTest {
+
+    private static ContentCompression createCompression() {
+        ControllerParam param = new ControllerParam();
+        param.setRequestCompressionEnabled(true);
+        return new ContentCompression(param);
+    }
+
+    private static String createBody(int size) {
+        StringBuilder body = new StringBuilder("[");
+        while(body.length() < size) {
+            body.append("\"GigabitEthernet0/0/1\",");
+        }
+        return body.append("\"\"]").toString();
+    }
+
+    @Test
+    public void testCompressKnownLength() throws IOException {
+        ContentCompression compression = createCompression();
+        StringEntity small = new StringEntity(createBody(100), ContentType.APPLICATION_JSON);
+        assertSame(small, compression.compress(small));
+
+        String body = createBody(100000);
+        HttpEntity compressed = compression.compress(new StringEntity(body, ContentType.APPLICATION_JSON));
+        assertEquals("gzip", compressed.getContentEncoding().getValue());
+        assertTrue(compressed.isRepeatable());
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        compressed.writeTo(written);
+        assertTrue(written.size() < body.length() / 10);
+        ByteArrayEntity received = new ByteArrayEntity(written.toByteArray());
+        received.setContentEncoding("gzip");
+        assertEquals(body, EntityUtils.toString(ContentCompression.decompress(received)));
+
+        InputStreamEntity read = new InputStreamEntity(compressed.getContent());
+        read.setContentEncoding("gzip");
+        assertEquals(body, EntityUtils.toString(ContentCompression.decompress(read)));
+    }
+
+    @Test
+    public void testCompressStreamed() throws IOException {
+        ContentCompression compression = createCompression();
+        JsonStreamEntity small = new JsonStreamEntity(Collections.singletonMap("name", "ipsec"));
+        assertSame(small, compression.compress(small));
+
+        List<Map<String, String>> list = new ArrayList<Map<String, String>>();
+        for(int i = 0; i < 1000; i++) {
+            list.add(Collections.singletonMap("name", "ipsec" + i));
+        }
+        HttpEntity compressed = compression.compress(new JsonStreamEntity(list));
+        assertEquals("gzip", compressed.getContentEncoding().getValue());
+        assertTrue(compressed.isRepeatable());
+    }
+
+    @Test
+    public void testDisabledAndRejected() throws IOException {
+        StringEntity entity = new StringEntity(createBody(100000), ContentType.APPLICATION_JSON);
+        assertSame(entity, new ContentCompression(new ControllerParam()).compress(entity));
+
+        ContentCompression compression = createCompression();
+        compression.rejectRequestCompression();
+        assertSame(entity, compression.compress(entity));
+        assertNull(compression.compress(null));
+    }
+}
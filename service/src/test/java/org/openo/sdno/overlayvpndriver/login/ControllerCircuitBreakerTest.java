@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+public class ControllerCircuitBreakerTest {
+
+    private static ControllerParam createParam(long waitDuration) {
+        ControllerParam param = new ControllerParam();
+        param.setSlidingWindowSize(4);
+        param.setMinimumNumberOfCalls(4);
+        param.setFailureRateThreshold(50);
+        param.setWaitDurationInOpenState(waitDuration);
+        param.setPermittedCallsInHalfOpenState(2);
+        return param;
+    }
+
+    @Test
+    public void testOpenOnFailureRate() {
+        ControllerCircuitBreaker breaker = new ControllerCircuitBreaker(createParam(60000));
+
+        breaker.onResult(0, true);
+        breaker.onResult(0, false);
+        breaker.onResult(0, true);
+        assertEquals(ControllerCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onResult(0, false);
+        assertEquals(ControllerCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testHalfOpenCloses() {
+        ControllerCircuitBreaker breaker = new ControllerCircuitBreaker(createParam(0));
+        for(int i = 0; i < 4; i++) {
+            breaker.onResult(0, false);
+        }
+        assertEquals(ControllerCircuitBreaker.State.OPEN, breaker.getState());
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(ControllerCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(0, true);
+        breaker.onResult(0, true);
+        assertEquals(ControllerCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenReopens() {
+        ControllerCircuitBreaker breaker = new ControllerCircuitBreaker(createParam(0));
+        for(int i = 0; i < 4; i++) {
+            breaker.onResult(0, false);
+        }
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(0, false);
+        assertEquals(ControllerCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testGuardCircuitOpen() throws ServiceException {
+        ControllerParam param = createParam(60000);
+
+        ControllerGuard guard = ControllerGuard.getInstance();
+        try {
+            for(int i = 0; i < 4; i++) {
+                guard.tryAcquire("openCtrl", param).release(null);
+            }
+            guard.tryAcquire("openCtrl", param);
+        } finally {
+            guard.remove("openCtrl");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+public class ControllerEndpointGroupTest {
+
+    private static HTTPReturnMessage createMsg(int status) {
+        HTTPReturnMessage msg = new HTTPReturnMessage();
+        msg.setStatus(status);
+        return msg;
+    }
+
+    @Test
+    public void testFailOverToStandby() {
+        OverlayVpnDriverSsoProxy active = SsoProxyRegistry.getInstance().get("10.10.10.40", "80", "test", "pwd");
+        OverlayVpnDriverSsoProxy standby = SsoProxyRegistry.getInstance().get("10.10.10.41", "80", "test", "pwd");
+        ControllerEndpointGroup group = new ControllerEndpointGroup("ctrl1", Arrays.asList(active, standby));
+
+        ControllerEndpointGroup.Endpoint activeEndpoint = group.select();
+        assertSame(active, activeEndpoint.getProxy());
+        assertSame(standby, group.selectOther(activeEndpoint).getProxy());
+
+        group.onResult(activeEndpoint, createMsg(200));
+        group.onResult(activeEndpoint, createMsg(-1));
+        assertSame(active, group.select().getProxy());
+
+        group.onResult(activeEndpoint, createMsg(503));
+        ControllerEndpointGroup.Endpoint standbyEndpoint = group.select();
+        assertSame(standby, standbyEndpoint.getProxy());
+        assertNull(group.selectOther(standbyEndpoint));
+
+        // an answer of the active node, even an error, brings it back
+        group.onResult(activeEndpoint, createMsg(404));
+        assertSame(active, group.select().getProxy());
+    }
+
+    @Test
+    public void testCanFailOver() {
+        ControllerReturnMessage notSent = new ControllerReturnMessage();
+        notSent.setStatus(-1);
+        notSent.setNotSent(true);
+        assertTrue(OverlayVpnDriverProxy.canFailOver("POST", "/controller/v2/sites", null, notSent));
+
+        assertTrue(OverlayVpnDriverProxy.canFailOver("GET", "/controller/v2/sites?id=1", null, createMsg(-1)));
+        assertTrue(OverlayVpnDriverProxy.canFailOver("POST", "/controller/v2/sites", null, createMsg(503)));
+        assertFalse(OverlayVpnDriverProxy.canFailOver("POST", "/controller/v2/sites", null, createMsg(-1)));
+        assertFalse(OverlayVpnDriverProxy.canFailOver("GET", "/controller/v2/sites", null, createMsg(500)));
+    }
+}
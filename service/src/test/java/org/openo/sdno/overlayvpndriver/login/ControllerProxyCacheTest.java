@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.esr.invdao.SdnControllerDao;
+import org.openo.sdno.overlayvpn.esr.model.SdnController;
+
+import mockit.Mock;
+import mockit.MockUp;
+
+public class ControllerProxyCacheTest {
+
+    private final AtomicInteger queryCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        ControllerProxyCache.getInstance().invalidateAll();
+        queryCount.set(0);
+    }
+
+    @Test
+    public void testGetCached() {
+        new MockUp<SdnControllerDao>() {
+
+            @Mock
+            public SdnController querySdnControllerById(String ctrlUuid) throws ServiceException {
+                queryCount.incrementAndGet();
+                SdnController controller = new SdnController();
+                controller.setUrl("https://10.10.10.20:18008");
+                controller.setUserName("test");
+                controller.setPassword("password");
+                return controller;
+            }
+        };
+
+        assertNotNull(ControllerProxyCache.getInstance().get("ctrl1"));
+        assertNotNull(ControllerProxyCache.getInstance().get("ctrl1"));
+        assertEquals(1, queryCount.get());
+
+        ControllerProxyCache.getInstance().invalidate("ctrl1");
+        assertNotNull(ControllerProxyCache.getInstance().get("ctrl1"));
+        assertEquals(2, queryCount.get());
+    }
+
+    @Test
+    public void testGetNegativeCached() {
+        new MockUp<SdnControllerDao>() {
+
+            @Mock
+            public SdnController querySdnControllerById(String ctrlUuid) throws ServiceException {
+                queryCount.incrementAndGet();
+                return null;
+            }
+        };
+
+        assertNull(ControllerProxyCache.getInstance().get("ctrl2"));
+        assertNull(ControllerProxyCache.getInstance().get("ctrl2"));
+        assertEquals(1, queryCount.get());
+    }
+
+    @Test
+    public void testConcurrentMissesQueryOnce() throws Exception {
+        new MockUp<SdnControllerDao>() {
+
+            @Mock
+            public SdnController querySdnControllerById(String ctrlUuid) throws ServiceException {
+                queryCount.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                SdnController controller = new SdnController();
+                controller.setUrl("https://10.10.10.21:18008");
+                controller.setUserName("test");
+                controller.setPassword("password");
+                return controller;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ControllerEndpointGroup>> groups = new ArrayList<Future<ControllerEndpointGroup>>();
+            for(int i = 0; i < 4; i++) {
+                groups.add(executor.submit(() -> ControllerProxyCache.getInstance().getGroup("ctrl3")));
+            }
+
+            ControllerEndpointGroup group = groups.get(0).get();
+            assertNotNull(group);
+            for(Future<ControllerEndpointGroup> other : groups) {
+                assertSame(group, other.get());
+            }
+            assertEquals(1, queryCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
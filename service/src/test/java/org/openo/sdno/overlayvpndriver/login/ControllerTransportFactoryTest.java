@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.junit.Test;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+
+public class ControllerTransportFactoryTest {
+
+    private static ControllerTransport create(String transport, CookieStore cookieStore)
+            throws GeneralSecurityException, IOException {
+        ControllerParam param = new ControllerParam();
+        param.setTransport(transport);
+        return ControllerTransportFactory.create(param, cookieStore);
+    }
+
+    @Test
+    public void testCreate() throws GeneralSecurityException, IOException {
+        CookieStore cookieStore = new BasicCookieStore();
+        try (ControllerTransport apache = create("apache", cookieStore);
+                ControllerTransport nio = create("nio", cookieStore);
+                ControllerTransport unknown = create("unknown", cookieStore)) {
+            assertTrue(apache instanceof ApacheHttpTransport);
+            assertTrue(nio instanceof NioHttpTransport);
+            assertTrue(unknown instanceof ApacheHttpTransport);
+            assertSame(cookieStore, nio.getCookieStore());
+            assertEquals(0, nio.getPoolStats().getLeased());
+        }
+    }
+
+    @Test
+    public void testNioAbortCancelsExchange() throws Exception {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        try (ServerSocket silentServer = new ServerSocket(0);
+                ControllerTransport nio = create("nio", new BasicCookieStore())) {
+            HttpGet request = new HttpGet("https://127.0.0.1:" + silentServer.getLocalPort() + "/");
+            nio.executeAsync(request, new FutureCallback<HttpResponse>() {
+
+                @Override
+                public void completed(HttpResponse response) {
+                }
+
+                @Override
+                public void failed(Exception e) {
+                }
+
+                @Override
+                public void cancelled() {
+                    cancelled.countDown();
+                }
+            });
+            request.abort();
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testNioExecuteBoundedByDeadline() throws Exception {
+        try (ServerSocket silentServer = new ServerSocket(0);
+                ControllerTransport nio = create("nio", new BasicCookieStore())) {
+            RequestDeadline.setNanos(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+            try {
+                nio.execute(new HttpGet("https://127.0.0.1:" + silentServer.getLocalPort() + "/"));
+                fail("request to a silent server must time out");
+            } catch(SocketTimeoutException e) {
+                assertTrue(RequestDeadline.isExpired());
+            } finally {
+                RequestDeadline.clear();
+            }
+        }
+    }
+}
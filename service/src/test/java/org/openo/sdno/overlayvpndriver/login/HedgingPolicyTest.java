@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+public class HedgingPolicyTest {
+
+    private static HedgingPolicy createPolicy(boolean enabled, long minDelay) {
+        ControllerParam param = new ControllerParam();
+        param.setHedgingEnabled(enabled);
+        param.setHedgingPercentile(95);
+        param.setHedgingMinDelay(minDelay);
+        return new HedgingPolicy(param);
+    }
+
+    private static void recordMillis(HedgingPolicy policy, int from, int to) {
+        for(int i = from; i <= to; i++) {
+            policy.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        HedgingPolicy policy = createPolicy(false, 0);
+        recordMillis(policy, 1, 100);
+        assertFalse(policy.isEnabled());
+        assertEquals(-1, policy.getDelayMillis());
+    }
+
+    @Test
+    public void testNotEnoughSamples() {
+        HedgingPolicy policy = createPolicy(true, 0);
+        recordMillis(policy, 1, 10);
+        assertTrue(policy.isEnabled());
+        assertEquals(-1, policy.getDelayMillis());
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        HedgingPolicy policy = createPolicy(true, 0);
+        recordMillis(policy, 1, 100);
+        assertEquals(96, policy.getDelayMillis());
+    }
+
+    @Test
+    public void testMinimumDelay() {
+        HedgingPolicy policy = createPolicy(true, 50);
+        recordMillis(policy, 1, 20);
+        assertEquals(50, policy.getDelayMillis());
+    }
+}
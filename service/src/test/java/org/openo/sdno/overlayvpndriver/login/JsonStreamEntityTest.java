@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+import org.openo.sdno.framework.container.util.JsonUtil;
+import org.openo.sdno.overlayvpndriver.model.ipsec.adapter.NetIpSecConn;
+import org.openo.sdno.overlayvpndriver.model.ipsec.adapter.NetIpSecModel;
+import org.openo.sdno.overlayvpndriver.model.vxlan.adapter.NetVni;
+import org.openo.sdno.overlayvpndriver.model.vxlan.adapter.NetVxLanDeviceModel;
+
+public class JsonStreamEntityTest {
+
+    @Test
+    public void testWriteTo() throws IOException {
+        NetVxLanDeviceModel model = new NetVxLanDeviceModel();
+        model.setName("vxlan1");
+        List<NetVxLanDeviceModel> models = new ArrayList<NetVxLanDeviceModel>();
+        models.add(model);
+        Map<String, List<NetVxLanDeviceModel>> ctrlInfoMap = new HashMap<String, List<NetVxLanDeviceModel>>();
+        ctrlInfoMap.put("vxlanList", models);
+
+        JsonStreamEntity entity = new JsonStreamEntity(ctrlInfoMap);
+        assertTrue(entity.isRepeatable());
+        assertTrue(entity.isChunked());
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        entity.writeTo(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        entity.writeTo(second);
+
+        String json = first.toString("UTF-8");
+        assertTrue(json.contains("\"name\":\"vxlan1\""));
+        assertEquals(json, second.toString("UTF-8"));
+        assertEquals(json, EntityUtils.toString(entity, "UTF-8"));
+    }
+
+    private static void assertSameAsJsonUtil(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonStreamEntity(value).writeTo(out);
+        assertArrayEquals(JsonUtil.toJson(value).getBytes("UTF-8"), out.toByteArray());
+    }
+
+    @Test
+    public void testSameAsJsonUtilForIpSec() throws IOException {
+        NetIpSecConn conn = new NetIpSecConn();
+        conn.setIpSecConnectionId("conn1");
+        conn.setSeqNumber(10);
+        conn.setType("p2p");
+
+        NetIpSecModel model = new NetIpSecModel();
+        model.setName("ipsec1");
+        model.setInterfaceName("GigabitEthernet0/0/1");
+        model.setIpsecConnection(Arrays.asList(conn));
+
+        List<NetIpSecModel> models = new ArrayList<NetIpSecModel>();
+        models.add(model);
+        models.add(new NetIpSecModel());
+        assertSameAsJsonUtil(models);
+    }
+
+    @Test
+    public void testSameAsJsonUtilForVxLan() throws IOException {
+        NetVni vni = new NetVni();
+        vni.setVni(100);
+        vni.setPeerAddresslist(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        vni.setVlanlist(Arrays.asList(10, 20));
+
+        NetVxLanDeviceModel model = new NetVxLanDeviceModel();
+        model.setVneId(1);
+        model.setName("vxlan1");
+        model.setLocalAddress("10.0.0.3");
+        model.setVniilist(Arrays.asList(vni));
+
+        List<NetVxLanDeviceModel> models = new ArrayList<NetVxLanDeviceModel>();
+        models.add(model);
+        models.add(new NetVxLanDeviceModel());
+        assertSameAsJsonUtil(models);
+    }
+}
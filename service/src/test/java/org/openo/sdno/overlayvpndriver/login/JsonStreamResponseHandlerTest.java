@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpndriver.model.port.NetAcDevicePort;
+import org.openo.sdno.overlayvpndriver.util.controller.ControllerUtil;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+public class JsonStreamResponseHandlerTest {
+
+    private static BasicHttpResponse createResponse(int status, String body) {
+        return createResponse(status, body, ContentType.APPLICATION_JSON);
+    }
+
+    private static BasicHttpResponse createResponse(int status, String body, ContentType contentType) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+        response.setEntity(new StringEntity(body, contentType));
+        return response;
+    }
+
+    @Test
+    public void testDecodeListing() throws IOException, ServiceException {
+        ControllerUtil<NetAcDevicePort> util = new ControllerUtil<NetAcDevicePort>(NetAcDevicePort.class);
+        JsonStreamResponseHandler handler = new JsonStreamResponseHandler(util.getResponseType());
+
+        HTTPReturnMessage msg = handler.handleResponse(
+                createResponse(200, "{\"errcode\":\"0\",\"data\":[{\"alias\":\"alias\",\"unknownField\":1}]}"));
+
+        assertTrue(msg instanceof DecodedReturnMessage);
+        assertNotNull(((DecodedReturnMessage<?>)msg).getDecoded());
+        List<NetAcDevicePort> ports = util.checkRsp(msg);
+        assertEquals(1, ports.size());
+        assertEquals("alias", ports.get(0).getAlias());
+    }
+
+    @Test
+    public void testInvalidBodyKeepsStatus() throws IOException {
+        ControllerUtil<NetAcDevicePort> util = new ControllerUtil<NetAcDevicePort>(NetAcDevicePort.class);
+        JsonStreamResponseHandler handler = new JsonStreamResponseHandler(util.getResponseType());
+
+        HTTPReturnMessage msg = handler.handleResponse(createResponse(200, "{\"errcode\":\"0\",\"data\":\"x\"}"));
+
+        assertEquals(200, msg.getStatus());
+        assertNull(((DecodedReturnMessage<?>)msg).getDecoded());
+        assertNotNull(((DecodedReturnMessage<?>)msg).getDecodeError());
+        try {
+            util.checkRsp(msg);
+            fail("ServiceException expected");
+        } catch(ServiceException e) {
+            assertTrue(e instanceof ServiceException);
+        }
+    }
+
+    @Test
+    public void testRedirectKeptAsBody() throws IOException {
+        JsonStreamResponseHandler handler =
+                new JsonStreamResponseHandler(new ControllerUtil<NetAcDevicePort>().getResponseType());
+
+        HTTPReturnMessage msg =
+                handler.handleResponse(createResponse(200, "<html>ssoRedirect</html>", ContentType.TEXT_HTML));
+
+        assertNull(((DecodedReturnMessage<?>)msg).getDecoded());
+        assertTrue(OverlayVpnDriverProxy.isNeedRelogin(msg));
+    }
+
+    @Test
+    public void testJsonRedirectKeptAsBody() throws IOException {
+        JsonStreamResponseHandler handler =
+                new JsonStreamResponseHandler(new ControllerUtil<NetAcDevicePort>().getResponseType());
+
+        HTTPReturnMessage msg =
+                handler.handleResponse(createResponse(200, "{\"redirect\":\"/sso/login?ssoRedirect=true\"}"));
+
+        assertNull(((DecodedReturnMessage<?>)msg).getDecoded());
+        assertTrue(OverlayVpnDriverProxy.isNeedRelogin(msg));
+    }
+
+    @Test
+    public void testErrorStatusKeptAsBody() throws IOException {
+        JsonStreamResponseHandler handler =
+                new JsonStreamResponseHandler(new ControllerUtil<NetAcDevicePort>().getResponseType());
+
+        HTTPReturnMessage msg = handler.handleResponse(createResponse(500, "error"));
+
+        assertEquals(500, msg.getStatus());
+        assertEquals("error", msg.getBody());
+    }
+}
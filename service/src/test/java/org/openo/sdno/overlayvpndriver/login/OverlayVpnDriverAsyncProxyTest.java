@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.exception.HttpCode;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+
+public class OverlayVpnDriverAsyncProxyTest {
+
+    private final List<String> requests = new ArrayList<String>();
+
+    private final AtomicInteger released = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        requests.clear();
+        released.set(0);
+        ControllerProxyCache.getInstance().invalidateAll();
+    }
+
+    private static ControllerReturnMessage createMsg(int status, boolean reloginRequired) {
+        ControllerReturnMessage msg = new ControllerReturnMessage();
+        msg.setStatus(status);
+        msg.setBody("{}");
+        msg.setReloginRequired(reloginRequired);
+        return msg;
+    }
+
+    private static OverlayVpnDriverSsoProxy mockGroup(String activeIp, String standbyIp) {
+        final List<OverlayVpnDriverSsoProxy> proxies = new ArrayList<OverlayVpnDriverSsoProxy>();
+        proxies.add(OverlayVpnDriverSsoProxy.getInstance(activeIp, "80", "test", "password"));
+        if(null != standbyIp) {
+            proxies.add(OverlayVpnDriverSsoProxy.getInstance(standbyIp, "80", "test", "password"));
+        }
+
+        new MockUp<ControllerProxyCache>() {
+
+            @Mock
+            public CompletableFuture<ControllerEndpointGroup> getGroupAsync(String ctrlUuid) {
+                return CompletableFuture.completedFuture(new ControllerEndpointGroup(ctrlUuid, proxies));
+            }
+        };
+        return proxies.get(0);
+    }
+
+    private void mockPermit() {
+        new MockUp<ControllerGuard.Permit>() {
+
+            @Mock
+            public void release(HTTPReturnMessage response) {
+                released.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testUnresolvedController() throws InterruptedException, ExecutionException {
+        new MockUp<ControllerProxyCache>() {
+
+            @Mock
+            public CompletableFuture<ControllerEndpointGroup> getGroupAsync(String ctrlUuid) {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+
+        IOverlayVpnDriverAsyncProxy proxy = OverlayVpnDriverAsyncProxy.getInstance();
+        assertEquals(HttpCode.ERR_FAILED, proxy.sendGetMsg("../", "", "123").get().getStatus());
+        assertEquals(HttpCode.ERR_FAILED, proxy.sendPostMsg("../", "", "123").get().getStatus());
+        assertEquals(HttpCode.ERR_FAILED, proxy.sendPutMsg("../", "123", "123").get().getStatus());
+        assertEquals(HttpCode.ERR_FAILED, proxy.sendDeleteMsg("../", "", "123").get().getStatus());
+    }
+
+    @Test
+    public void testRelogin() throws Exception {
+        mockGroup("10.10.10.40", null);
+        mockPermit();
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> getAsync(String restUrl) {
+                requests.add(restUrl);
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(
+                        createMsg(200, 1 == requests.size()));
+            }
+
+            @Mock
+            public CompletableFuture<Boolean> reloginAsync(String url, long requestNanos) {
+                return CompletableFuture.completedFuture(true);
+            }
+        };
+
+        HTTPReturnMessage response =
+                OverlayVpnDriverAsyncProxy.getInstance().sendGetMsg("/test", null, "ctrl").get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatus());
+        assertEquals(2, requests.size());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void testReloginFailed() throws Exception {
+        mockGroup("10.10.10.41", null);
+        mockPermit();
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> getAsync(String restUrl) {
+                requests.add(restUrl);
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(createMsg(200, true));
+            }
+
+            @Mock
+            public CompletableFuture<Boolean> reloginAsync(String url, long requestNanos) {
+                return CompletableFuture.completedFuture(false);
+            }
+        };
+
+        HTTPReturnMessage response =
+                OverlayVpnDriverAsyncProxy.getInstance().sendGetMsg("/test", null, "ctrl").get(5, TimeUnit.SECONDS);
+        assertEquals(HttpCode.ERR_FAILED, response.getStatus());
+        assertEquals(1, requests.size());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void testFailover() throws Exception {
+        final OverlayVpnDriverSsoProxy active = mockGroup("10.10.10.42", "10.10.10.43");
+        mockPermit();
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> getAsync(Invocation inv, String restUrl) {
+                OverlayVpnDriverSsoProxy proxy = inv.getInvokedInstance();
+                requests.add(proxy.getAddress());
+                int status = (proxy == active) ? 503 : 200;
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(createMsg(status, false));
+            }
+        };
+
+        HTTPReturnMessage response =
+                OverlayVpnDriverAsyncProxy.getInstance().sendGetMsg("/test", null, "ctrl").get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatus());
+        assertEquals(Arrays.asList("10.10.10.42:80", "10.10.10.43:80"), requests);
+        assertEquals(2, released.get());
+    }
+
+    @Test
+    public void testNoFailoverOfNonIdempotentRequest() throws Exception {
+        final OverlayVpnDriverSsoProxy active = mockGroup("10.10.10.44", "10.10.10.45");
+        mockPermit();
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> postAsync(Invocation inv, String restUrl, String body) {
+                OverlayVpnDriverSsoProxy proxy = inv.getInvokedInstance();
+                requests.add(proxy.getAddress());
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(createMsg(502, false));
+            }
+        };
+
+        HTTPReturnMessage response =
+                OverlayVpnDriverAsyncProxy.getInstance().sendPostMsg("/test", "{}", "ctrl").get(5, TimeUnit.SECONDS);
+        assertEquals(502, response.getStatus());
+        assertEquals(Arrays.asList(active.getAddress()), requests);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void testOpenCircuit() throws Exception {
+        mockGroup("10.10.10.46", null);
+        new MockUp<ControllerGuard>() {
+
+            @Mock
+            public ControllerGuard.Permit tryAcquire(String ctlrUuid, ControllerParam param)
+                    throws ServiceException {
+                throw new ServiceException("circuit open");
+            }
+        };
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> getAsync(String restUrl) {
+                requests.add(restUrl);
+                return CompletableFuture.<HTTPReturnMessage> completedFuture(createMsg(200, false));
+            }
+        };
+
+        try {
+            OverlayVpnDriverAsyncProxy.getInstance().sendGetMsg("/test", null, "ctrl").get(5, TimeUnit.SECONDS);
+            fail("ServiceException expected");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServiceException);
+        }
+        assertTrue(requests.isEmpty());
+    }
+}
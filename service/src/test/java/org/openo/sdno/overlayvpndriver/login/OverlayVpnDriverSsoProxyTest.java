@@ -20,6 +20,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -289,4 +297,119 @@ public class OverlayVpnDriverSsoProxyTest {
         HTTPReturnMessage message = acBranch.delete("test.com", "");
         assertEquals(message.getStatus(), 200);
     }
+
+    @Test
+    public void testLoginAsyncSingleFlight() throws Exception {
+        final AtomicInteger loginCount = new AtomicInteger();
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public boolean login(String url) {
+                loginCount.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        OverlayVpnDriverSsoProxy acBranch =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.11", "80", "test", "password");
+        List<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>();
+        for(int i = 0; i < 10; i++) {
+            futures.add(acBranch.loginAsync("/sso/login"));
+        }
+        for(CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        assertEquals(1, loginCount.get());
+    }
+
+    @Test
+    public void testConcurrentRequestsOverInitialLimit() throws Exception {
+        new MockUp<CloseableHttpClient>() {
+
+            @Mock
+            public CloseableHttpResponse execute(final HttpUriRequest request) throws Exception {
+                Thread.sleep(700);
+                return new MockedHttpResponse();
+            }
+        };
+        final OverlayVpnDriverSsoProxy acBranch =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.12", "80", "test", "password");
+        int requestCount = acBranch.getConcurrencyLimiter().getLimit() + 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requestCount);
+        try {
+            List<Future<HTTPReturnMessage>> futures = new ArrayList<Future<HTTPReturnMessage>>();
+            for(int i = 0; i < requestCount; i++) {
+                futures.add(executor.submit(() -> acBranch.post("test.com", "test")));
+            }
+            for(Future<HTTPReturnMessage> future : futures) {
+                assertEquals(200, future.get().getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPingBypassesLimiter() {
+        new MockUp<CloseableHttpClient>() {
+
+            @Mock
+            public CloseableHttpResponse execute(final HttpUriRequest request) throws Exception {
+                return new MockedHttpResponse();
+            }
+        };
+        new MockUp<EntityUtils>() {
+
+            @Mock
+            public String toString(HttpEntity entity, String str) {
+                return "{}";
+            }
+        };
+        final AtomicInteger acquires = new AtomicInteger();
+        new MockUp<AimdConcurrencyLimiter>() {
+
+            @Mock
+            public boolean acquire(long maxWaitMillis) {
+                acquires.incrementAndGet();
+                return true;
+            }
+
+            @Mock
+            public boolean tryAcquire() {
+                acquires.incrementAndGet();
+                return true;
+            }
+        };
+
+        OverlayVpnDriverSsoProxy acBranch =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.15", "80", "test", "password");
+        assertTrue(acBranch.ping());
+        assertEquals(0, acquires.get());
+    }
+
+    @Test
+    public void testPingExpiredSession() {
+        new MockUp<CloseableHttpClient>() {
+
+            @Mock
+            public CloseableHttpResponse execute(final HttpUriRequest request) throws Exception {
+                return new MockedHttpResponse();
+            }
+        };
+        new MockUp<EntityUtils>() {
+
+            @Mock
+            public String toString(HttpEntity entity, String str) {
+                return "{\"ssoRedirect\":\"/sso/login\"}";
+            }
+        };
+
+        OverlayVpnDriverSsoProxy acBranch =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.16", "80", "test", "password");
+        assertFalse(acBranch.ping());
+    }
 }
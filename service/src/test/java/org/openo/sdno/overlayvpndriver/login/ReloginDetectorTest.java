@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+public class ReloginDetectorTest {
+
+    @Test
+    public void testClassifyHeaders() {
+        assertEquals(ReloginDetector.Verdict.RELOGIN, ReloginDetector.classify(401, null));
+        assertEquals(ReloginDetector.Verdict.RELOGIN,
+                ReloginDetector.classify(302, "https://ac:18002/sso/login?service=x"));
+        assertEquals(ReloginDetector.Verdict.NO_RELOGIN, ReloginDetector.classify(302, "/controller/v2"));
+        assertEquals(ReloginDetector.Verdict.UNKNOWN, ReloginDetector.classify(200, null));
+    }
+
+    @Test
+    public void testJsonSsoResponse() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "");
+        response.setEntity(new StringEntity("{\"redirect\":\"/sso/login?ssoRedirect=true\"}",
+                ContentType.APPLICATION_JSON));
+
+        ReloginDetector.Verdict verdict = ReloginDetector.classify(response);
+        assertEquals(ReloginDetector.Verdict.UNKNOWN, verdict);
+        assertTrue(ReloginDetector.isNeedRelogin(verdict, "{\"redirect\":\"/sso/login?ssoRedirect=true\"}"));
+        assertFalse(ReloginDetector.isNeedRelogin(verdict, "{\"errcode\":\"0\",\"data\":[]}"));
+    }
+
+    @Test
+    public void testBodyPrefixOnly() {
+        assertTrue(ReloginDetector.isReloginBody("<html>ssoRedirect</html>"));
+        assertTrue(ReloginDetector.isReloginBody("<a href=\"/sso/logout\">"));
+        assertFalse(ReloginDetector.isReloginBody("ssoRedirect"));
+        assertFalse(ReloginDetector.isReloginBody(null));
+
+        StringBuilder body = new StringBuilder();
+        while(body.length() < ReloginDetector.BODY_PREFIX_SIZE) {
+            body.append("{\"name\":\"value\"},");
+        }
+        assertFalse(ReloginDetector.isReloginBody(body.append("ssoRedirect").toString()));
+    }
+
+    @Test
+    public void testHeaderVerdictWins() {
+        ControllerReturnMessage msg = new ControllerReturnMessage();
+        msg.setBody("{\"data\":\"text about ssoRedirect\"}");
+        msg.setReloginRequired(false);
+        assertFalse(ReloginDetector.isNeedRelogin(msg));
+
+        HTTPReturnMessage plain = new HTTPReturnMessage();
+        plain.setBody(msg.getBody());
+        assertTrue(ReloginDetector.isNeedRelogin(plain));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.junit.Test;
+import org.openo.sdno.overlayvpndriver.util.config.ControllerParam;
+
+public class RetryPolicyTest {
+
+    private static final String BASE_URL = "https://127.0.0.1:18008/controller/cloud/v2/northbound/config/dev1";
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(new ControllerParam());
+
+    @Test
+    public void testIdempotentRequests() {
+        assertTrue(RetryPolicy.isIdempotent(new HttpGet(BASE_URL + "/device/port")));
+        assertTrue(RetryPolicy.isIdempotent(new HttpPut(BASE_URL + "/device/arvpnsipsec")));
+        assertTrue(RetryPolicy.isIdempotent(new HttpPut(BASE_URL + "/device/arvpnsvxlan")));
+        assertTrue(RetryPolicy.isIdempotent(new HttpDeleteWithBody(BASE_URL + "/device/arvpnsvxlan")));
+        assertFalse(RetryPolicy.isIdempotent(new HttpPut(BASE_URL + "/device/arwansubinterface")));
+        assertFalse(RetryPolicy.isIdempotent(new HttpPost(BASE_URL + "/device/arvpnsipsec")));
+    }
+
+    @Test
+    public void testIsRetryable() {
+        HttpGet get = new HttpGet(BASE_URL + "/device/port");
+        assertTrue(retryPolicy.isRetryable(get, new SocketTimeoutException(), 1));
+        assertFalse(retryPolicy.isRetryable(get, new SocketTimeoutException(), 3));
+        assertFalse(retryPolicy.isRetryable(get, new ClientProtocolException(), 1));
+
+        HttpPost post = new HttpPost(BASE_URL + "/device/arvpnsipsec");
+        assertFalse(retryPolicy.isRetryable(post, new SocketTimeoutException(), 1));
+        assertTrue(retryPolicy.isRetryable(post, new ConnectException(), 1));
+    }
+
+    @Test
+    public void testBackoffRespectsDeadline() throws IOException {
+        long backoff = retryPolicy.getBackoffMillis(1, System.nanoTime() + 60000000000L);
+        assertTrue(backoff >= 0 && backoff <= 200);
+        assertTrue(retryPolicy.getBackoffMillis(1, System.nanoTime()) < 0);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SsoProxyRegistryTest {
+
+    @Test
+    public void testGetSameIdentity() {
+        OverlayVpnDriverSsoProxy proxy1 = SsoProxyRegistry.getInstance().get("10.10.10.30", "80", "test", "pwd");
+        OverlayVpnDriverSsoProxy proxy2 = SsoProxyRegistry.getInstance().get("10.10.10.30", "80", "test", "pwd");
+        assertSame(proxy1, proxy2);
+    }
+
+    @Test
+    public void testGetRotatedPassword() {
+        OverlayVpnDriverSsoProxy proxy1 = SsoProxyRegistry.getInstance().get("10.10.10.31", "80", "test", "old");
+        OverlayVpnDriverSsoProxy proxy2 = SsoProxyRegistry.getInstance().get("10.10.10.31", "80", "test", "new");
+        assertNotSame(proxy1, proxy2);
+        assertTrue(proxy1.isClosed());
+        assertFalse(proxy2.isClosed());
+        assertFalse(SsoProxyRegistry.getInstance().getAll().contains(proxy1));
+    }
+
+    @Test
+    public void testRotatedPasswordWaitsForLeases() {
+        OverlayVpnDriverSsoProxy proxy1 = SsoProxyRegistry.getInstance().get("10.10.10.32", "80", "test", "old");
+        proxy1.lease();
+        OverlayVpnDriverSsoProxy proxy2 = SsoProxyRegistry.getInstance().get("10.10.10.32", "80", "test", "new");
+        assertNotSame(proxy1, proxy2);
+        assertFalse(proxy1.isClosed());
+
+        proxy1.unlease();
+        assertTrue(proxy1.isClosed());
+    }
+}
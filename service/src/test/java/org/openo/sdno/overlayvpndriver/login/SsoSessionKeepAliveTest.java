@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import mockit.Mock;
+import mockit.MockUp;
+
+public class SsoSessionKeepAliveTest {
+
+    @Test
+    public void testKeepAliveExpiredSession() throws Exception {
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public boolean login(String url) {
+                return true;
+            }
+
+            @Mock
+            public boolean ping() {
+                return false;
+            }
+        };
+
+        OverlayVpnDriverSsoProxy proxy =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.12", "80", "test", "password");
+        assertTrue(proxy.loginAsync("/sso/login").get());
+
+        long refreshes = proxy.getSessionMetrics().getSessionRefreshes();
+        long avoided = proxy.getSessionMetrics().getAvoidedRelogins();
+        SsoSessionKeepAlive.getInstance().keepAliveAll();
+
+        assertEquals(refreshes + 1, proxy.getSessionMetrics().getSessionRefreshes());
+        assertEquals(avoided + 1, proxy.getSessionMetrics().getAvoidedRelogins());
+    }
+
+    @Test
+    public void testKeepAliveValidSession() throws Exception {
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public boolean login(String url) {
+                return true;
+            }
+
+            @Mock
+            public boolean ping() {
+                return true;
+            }
+        };
+
+        OverlayVpnDriverSsoProxy proxy =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.13", "80", "test", "password");
+        assertTrue(proxy.loginAsync("/sso/login").get());
+
+        long refreshes = proxy.getSessionMetrics().getSessionRefreshes();
+        long pings = proxy.getSessionMetrics().getKeepAlivePings();
+        SsoSessionKeepAlive.getInstance().keepAliveAll();
+
+        assertEquals(refreshes, proxy.getSessionMetrics().getSessionRefreshes());
+        assertEquals(pings + 1, proxy.getSessionMetrics().getKeepAlivePings());
+    }
+
+    @Test
+    public void testKeepAliveOldSession() throws Exception {
+        new MockUp<OverlayVpnDriverSsoProxy>() {
+
+            @Mock
+            public boolean login(String url) {
+                return true;
+            }
+
+            @Mock
+            public boolean ping() {
+                return true;
+            }
+        };
+
+        OverlayVpnDriverSsoProxy proxy =
+                OverlayVpnDriverSsoProxy.getInstance("10.10.10.14", "80", "test", "password");
+        assertTrue(proxy.loginAsync("/sso/login").get());
+
+        long maxSessionAge = proxy.getControllerParam().getMaxSessionAge();
+        long refreshes = proxy.getSessionMetrics().getSessionRefreshes();
+        long pings = proxy.getSessionMetrics().getKeepAlivePings();
+        proxy.getControllerParam().setMaxSessionAge(0);
+        try {
+            SsoSessionKeepAlive.getInstance().keepAliveAll();
+        } finally {
+            proxy.getControllerParam().setMaxSessionAge(maxSessionAge);
+        }
+
+        assertEquals(refreshes + 1, proxy.getSessionMetrics().getSessionRefreshes());
+        assertEquals(pings, proxy.getSessionMetrics().getKeepAlivePings());
+    }
+}
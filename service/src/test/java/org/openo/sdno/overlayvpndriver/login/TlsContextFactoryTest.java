@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.login;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.security.GeneralSecurityException;
+
+import org.junit.Test;
+
+public class TlsContextFactoryTest {
+
+    @Test
+    public void testSharedContext() throws GeneralSecurityException {
+        TlsContextFactory factory = TlsContextFactory.getInstance();
+
+        assertSame(factory, TlsContextFactory.getInstance());
+        assertNotNull(factory.getSocketFactory());
+        assertNotNull(factory.getIoSessionStrategy());
+        assertEquals(1024, factory.getSessionContext().getSessionCacheSize());
+    }
+
+    @Test
+    public void testPreHandshakeUnreachable() throws GeneralSecurityException {
+        // failures are only logged, the request path does its own handshake
+        TlsContextFactory.getInstance().preHandshake("127.0.0.1", 1);
+    }
+}
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.http.HttpEntity;
 import org.apache.poi.ss.formula.functions.T;
 import org.codehaus.jackson.JsonParseException;
 import org.codehaus.jackson.map.JsonMappingException;
@@ -79,13 +80,11 @@ public class VxLanRoaResourceTest {
         new MockUp<WanInfSvcImpl>() {
 
             @Mock
-            public List<NetAcDevicePort> queryPorts(List<String> interfaceNameList, String deviceId, String ctrlUuid) {
-                List<NetAcDevicePort> list = new ArrayList<>();
+            public NetAcDevicePort queryFirstPort(String interfaceName, String deviceId, String ctrlUuid) {
                 NetAcDevicePort netAcDevicePort = new NetAcDevicePort();
                 netAcDevicePort.setAlias("alias");
                 netAcDevicePort.setIpAddr("1.1.1.1");
-                list.add(netAcDevicePort);
-                return list;
+                return netAcDevicePort;
             }
         };
 
@@ -227,7 +226,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
@@ -316,7 +315,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
@@ -370,7 +369,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
@@ -437,7 +436,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
@@ -513,7 +512,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
@@ -597,7 +596,7 @@ public class VxLanRoaResourceTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
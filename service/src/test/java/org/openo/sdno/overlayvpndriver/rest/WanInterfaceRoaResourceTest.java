@@ -68,8 +68,8 @@ public class WanInterfaceRoaResourceTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "123";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return 123;
             }
 
         };
@@ -103,15 +103,12 @@ public class WanInterfaceRoaResourceTest {
         new MockUp<WanInfSvcImpl>() {
 
             @Mock
-            public List<NetAcDevicePort> queryPorts(List<String> interfaceNameList, String deviceId, String ctrlUuid) {
-                System.out.println(interfaceNameList.toString());
-                List<NetAcDevicePort> list = new ArrayList<>();
+            public NetAcDevicePort queryFirstPort(String interfaceName, String deviceId, String ctrlUuid) {
                 NetAcDevicePort netAcDevicePort = new NetAcDevicePort();
                 netAcDevicePort.setAlias("alias");
                 netAcDevicePort.setCeLowVlan("123");
                 netAcDevicePort.setIpAddr("1.1.1.1");
-                list.add(netAcDevicePort);
-                return list;
+                return netAcDevicePort;
             }
         };
         new MockUp<Integer>() {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.sbi.wan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openo.sdno.overlayvpn.model.port.WanSubInterface;
+
+public class WanSubInfIndexTest {
+
+    private static WanSubInterface createWanSubInf(String name, int vlanId) {
+        WanSubInterface wanSubInf = new WanSubInterface();
+        wanSubInf.setName(name);
+        wanSubInf.setCeLowVlan(vlanId);
+        wanSubInf.setCeHighVlan(vlanId);
+        wanSubInf.setMask("255.255.255.0");
+        return wanSubInf;
+    }
+
+    private static WanSubInfConfigData createConfigData(String ipAddress, WanSubInterface... wanSubInfs) {
+        WanSubInfConfigData configData = new WanSubInfConfigData();
+        configData.setIpAddress(ipAddress);
+        configData.setWanSubInf(new ArrayList<WanSubInterface>(Arrays.asList(wanSubInfs)));
+        return configData;
+    }
+
+    private static WanSubInfIndex createIndex() {
+        List<WanSubInfConfigData> configDataList = new ArrayList<WanSubInfConfigData>();
+        configDataList.add(createConfigData("10.0.0.1", createWanSubInf("GE0/0/1.855", 855),
+                createWanSubInf("GE0/0/1.859", 859)));
+        configDataList.add(createConfigData("10.0.0.2", createWanSubInf("GE0/0/2.855", 855)));
+        configDataList.add(createConfigData("10.0.0.1", createWanSubInf("duplicate", 857)));
+        return new WanSubInfIndex(configDataList);
+    }
+
+    @Test
+    public void testGetByIp() {
+        WanSubInfIndex index = createIndex();
+        assertEquals(1, index.getByIp("10.0.0.2").size());
+        assertTrue(index.getByIp("10.0.0.3").isEmpty());
+    }
+
+    @Test
+    public void testDuplicateAddressLastWins() {
+        WanSubInfIndex index = createIndex();
+        assertEquals(1, index.getByIp("10.0.0.1").size());
+        assertEquals("duplicate", index.getByIpAndVlan("10.0.0.1", 857).getName());
+        assertNull(index.getByIpAndVlan("10.0.0.1", 859));
+    }
+
+    @Test
+    public void testGetByIpAndVlan() {
+        WanSubInfIndex index = createIndex();
+        assertEquals("GE0/0/2.855", index.getByIpAndVlan("10.0.0.2", 855).getName());
+        assertNull(index.getByIpAndVlan("10.0.0.2", 857));
+        assertNull(index.getByIpAndVlan("10.0.0.3", 855));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        WanSubInfIndex index = createIndex();
+        index.getByIpAndVlan("10.0.0.2", 855).setIpAddress("192.168.1.1");
+        index.getByIp("10.0.0.2").get(0).setName("changed");
+        index.getByIp("10.0.0.2").clear();
+
+        WanSubInterface wanSubInf = index.getByIpAndVlan("10.0.0.2", 855);
+        assertNull(wanSubInf.getIpAddress());
+        assertEquals("GE0/0/2.855", wanSubInf.getName());
+        assertEquals(Integer.valueOf(855), wanSubInf.getCeHighVlan());
+        assertEquals("255.255.255.0", wanSubInf.getMask());
+        assertEquals(1, index.getByIp("10.0.0.2").size());
+    }
+}
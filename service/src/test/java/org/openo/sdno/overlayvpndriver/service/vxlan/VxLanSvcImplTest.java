@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.http.HttpEntity;
 import org.apache.poi.ss.formula.functions.T;
 import org.codehaus.jackson.type.TypeReference;
 import org.junit.Test;
@@ -51,7 +52,7 @@ public class VxLanSvcImplTest {
         new MockUp<OverlayVpnDriverProxy>() {
 
             @Mock
-            public HTTPReturnMessage sendPutMsg(String url, String body, String ctlrUuid) throws IOException {
+            public HTTPReturnMessage sendPutMsg(String url, HttpEntity body, String ctlrUuid) throws IOException {
                 HTTPReturnMessage msg = new HTTPReturnMessage();
                 msg.setStatus(200);
 
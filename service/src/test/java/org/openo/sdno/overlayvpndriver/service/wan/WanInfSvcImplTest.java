@@ -21,11 +21,13 @@ import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.codehaus.jackson.type.JavaType;
 import org.junit.Test;
 import org.openo.baseservice.remoteservice.exception.ServiceException;
 import org.openo.sdno.framework.container.util.JsonUtil;
 import org.openo.sdno.overlayvpn.enums.WanInterfaceUsedType;
 import org.openo.sdno.overlayvpn.model.port.WanSubInterface;
+import org.openo.sdno.overlayvpndriver.login.DecodedReturnMessage;
 import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverProxy;
 import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverResponse;
 import org.openo.sdno.overlayvpndriver.model.port.NetAcDevicePort;
@@ -70,8 +72,8 @@ public class WanInfSvcImplTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "123";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return 123;
             }
 
         };
@@ -93,12 +95,10 @@ public class WanInfSvcImplTest {
         new MockUp<WanInfSvcImpl>() {
 
             @Mock
-            public List<NetAcDevicePort> queryPorts(List<String> interfaceNameList, String deviceId, String ctrlUuid) {
-                List<NetAcDevicePort> list = new ArrayList<>();
+            public NetAcDevicePort queryFirstPort(String interfaceName, String deviceId, String ctrlUuid) {
                 NetAcDevicePort netAcDevicePort = new NetAcDevicePort();
                 netAcDevicePort.setAlias("alias");
-                list.add(netAcDevicePort);
-                return list;
+                return netAcDevicePort;
             }
         };
 
@@ -138,8 +138,8 @@ public class WanInfSvcImplTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "123";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return 123;
             }
 
         };
@@ -159,13 +159,11 @@ public class WanInfSvcImplTest {
         new MockUp<WanInfSvcImpl>() {
 
             @Mock
-            public List<NetAcDevicePort> queryPorts(List<String> interfaceNameList, String deviceId, String ctrlUuid) {
-                List<NetAcDevicePort> list = new ArrayList<>();
+            public NetAcDevicePort queryFirstPort(String interfaceName, String deviceId, String ctrlUuid) {
                 NetAcDevicePort netAcDevicePort = new NetAcDevicePort();
                 netAcDevicePort.setAlias("alias");
                 netAcDevicePort.setIpAddr("1.1.1.1");
-                list.add(netAcDevicePort);
-                return list;
+                return netAcDevicePort;
             }
         };
 
@@ -200,13 +198,29 @@ public class WanInfSvcImplTest {
                 return msg;
             }
 
+            @Mock
+            public HTTPReturnMessage sendGetMsg(String url, String ctlrUuid, JavaType responseType) {
+                DecodedReturnMessage<OverlayVpnDriverResponse<List<NetAcDevicePort>>> msg =
+                        new DecodedReturnMessage<OverlayVpnDriverResponse<List<NetAcDevicePort>>>();
+                msg.setStatus(200);
+
+                OverlayVpnDriverResponse<List<NetAcDevicePort>> res =
+                        new OverlayVpnDriverResponse<List<NetAcDevicePort>>();
+                List<NetAcDevicePort> ports = new ArrayList<>();
+                ports.add(new NetAcDevicePort());
+                res.setData(ports);
+                res.setErrcode("0");
+                msg.setDecoded(res);
+                return msg;
+            }
+
         };
 
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "123";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return 123;
             }
 
         };
@@ -292,8 +306,8 @@ public class WanInfSvcImplTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "123";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return 123;
             }
 
         };
@@ -343,8 +357,8 @@ public class WanInfSvcImplTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return null;
             }
 
         };
@@ -396,8 +410,8 @@ public class WanInfSvcImplTest {
         new MockUp<WanInterface>() {
 
             @Mock
-            public String getConfig(String cfgKey) throws ServiceException {
-                return "";
+            public Integer getVlanId(String cfgKey) throws ServiceException {
+                return null;
             }
 
         };
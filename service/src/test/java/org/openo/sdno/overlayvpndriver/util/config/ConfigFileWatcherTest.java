@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.config;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConfigFileWatcherTest {
+
+    @Test
+    public void testListenerCalledOnChange() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("config-watcher");
+        Path file = dir.resolve("deviceparam.json");
+        Files.write(file, "[]".getBytes(StandardCharsets.UTF_8));
+
+        CountDownLatch changed = new CountDownLatch(1);
+        ConfigFileWatcher.getInstance().watch(file.toString(), changed::countDown);
+        Files.write(file, "[{}]".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(changed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMissingDirectory() {
+        ConfigFileWatcher.getInstance().watch("not-existing-dir/deviceparam.json", () -> {});
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpn.brs.invdao.NetworkElementInvDao;
+import org.openo.sdno.overlayvpn.brs.model.NetworkElementMO;
+
+import mockit.Mock;
+import mockit.MockUp;
+
+public class DeviceCommParamReaderTest {
+
+    private final AtomicInteger queryCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        DeviceCommParamReader.invalidateAll();
+        queryCount.set(0);
+
+        new MockUp<NetworkElementInvDao>() {
+
+            @Mock
+            public List<NetworkElementMO> query(Map<String, String> condition) {
+                queryCount.incrementAndGet();
+                List<NetworkElementMO> neList = new ArrayList<NetworkElementMO>();
+                String nativeId = condition.get("nativeID");
+                if(nativeId.startsWith("known")) {
+                    NetworkElementMO ne = new NetworkElementMO();
+                    ne.setNativeID(nativeId);
+                    ne.setIpAddress("10.0.0.1");
+                    neList.add(ne);
+                }
+                return neList;
+            }
+        };
+    }
+
+    @Test
+    public void testCached() throws ServiceException {
+        DeviceCommParamReader.getDeviceCommParam("known");
+        DeviceCommParamReader.getDeviceCommParam("known");
+        assertEquals(1, queryCount.get());
+    }
+
+    @Test
+    public void testInvalidate() throws ServiceException {
+        DeviceCommParamReader.getDeviceCommParam("known");
+        DeviceCommParamReader.invalidate("known");
+        DeviceCommParamReader.getDeviceCommParam("known");
+        assertEquals(2, queryCount.get());
+    }
+
+    @Test
+    public void testUnknownDeviceNotCached() {
+        for(int i = 0; i < 2; i++) {
+            try {
+                DeviceCommParamReader.getDeviceCommParam("unknown");
+                fail("ServiceException expected");
+            } catch(ServiceException e) {
+                assertTrue(e instanceof ServiceException);
+            }
+        }
+        assertEquals(2, queryCount.get());
+    }
+
+    @Test
+    public void testParamsReadOnAccessUntilLoaded() throws ServiceException {
+        new MockUp<Files>() {
+
+            @Mock
+            public byte[] readAllBytes(Path path) throws IOException {
+                return "[{\"ip\":\"10.0.0.1\",\"port\":\"18008\"}]".getBytes();
+            }
+        };
+
+        DeviceParam param = DeviceCommParamReader.getDeviceCommParam("known");
+        assertNotNull(param);
+        assertEquals("18008", param.getPort());
+    }
+}
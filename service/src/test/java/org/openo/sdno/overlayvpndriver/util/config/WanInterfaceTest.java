@@ -16,6 +16,9 @@
 
 package org.openo.sdno.overlayvpndriver.util.config;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -98,4 +101,32 @@ public class WanInterfaceTest {
         // assertEquals("yes", result);
     }
 
+    @Test
+    public void testGetVlanIdAfterReload() throws ServiceException {
+        new MockUp<Files>() {
+
+            @Mock
+            public byte[] readAllBytes(Path path) throws IOException {
+                return ("[{\"cfgkey\":\"wanInterfaceForIPSec\",\"cfgvalue\":\"859\"},"
+                        + "{\"cfgkey\":\"name\",\"cfgvalue\":\"eth0\"}]").getBytes();
+            }
+        };
+        WanInterface.reload();
+
+        assertEquals(Integer.valueOf(859), WanInterface.getVlanId("wanInterfaceForIPSec"));
+        assertEquals("859", WanInterface.getConfig("wanInterfaceForIPSec"));
+        assertNull(WanInterface.getVlanId("name"));
+        assertNull(WanInterface.getVlanId("unknown"));
+
+        new MockUp<Files>() {
+
+            @Mock
+            public byte[] readAllBytes(Path path) throws IOException {
+                throw new IOException("not readable");
+            }
+        };
+        WanInterface.reload();
+
+        assertEquals(Integer.valueOf(859), WanInterface.getVlanId("wanInterfaceForIPSec"));
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.codehaus.jackson.type.JavaType;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpndriver.login.DecodedReturnMessage;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverAsyncProxy;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverProxy;
+import org.openo.sdno.overlayvpndriver.login.OverlayVpnDriverResponse;
+import org.openo.sdno.overlayvpndriver.model.ipsec.adapter.NetIpSecModel;
+import org.openo.sdno.overlayvpndriver.util.deadline.RequestDeadline;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+import mockit.Mock;
+import mockit.MockUp;
+
+public class ControllerPagedQueryTest {
+
+    private static final String URL = "/controller/dc/v2.0/ipsec";
+
+    private static int getParam(String url, String name) {
+        int begin = url.indexOf(name + '=') + name.length() + 1;
+        int end = url.indexOf('&', begin);
+        return Integer.parseInt(url.substring(begin, (end < 0) ? url.length() : end));
+    }
+
+    private static HTTPReturnMessage queryPage(String url, int totalRecords, boolean paged, int failedPage) {
+        int pageIndex = getParam(url, ControllerPagedQuery.PAGE_INDEX);
+        int pageSize = getParam(url, ControllerPagedQuery.PAGE_SIZE);
+
+        List<NetIpSecModel> data = new ArrayList<NetIpSecModel>();
+        int first = paged ? (pageIndex - 1) * pageSize : 0;
+        int last = paged ? Math.min(totalRecords, first + pageSize) : totalRecords;
+        for(int i = first; i < last; i++) {
+            NetIpSecModel model = new NetIpSecModel();
+            model.setName("ipsec" + i);
+            data.add(model);
+        }
+
+        OverlayVpnDriverResponse<List<NetIpSecModel>> res = new OverlayVpnDriverResponse<List<NetIpSecModel>>();
+        res.setErrcode((pageIndex == failedPage) ? "1" : "0");
+        res.setData(data);
+        if(paged) {
+            res.setPageIndex(pageIndex);
+            res.setPageSize(pageSize);
+            res.setTotalRecords(totalRecords);
+        }
+
+        DecodedReturnMessage<OverlayVpnDriverResponse<List<NetIpSecModel>>> msg =
+                new DecodedReturnMessage<OverlayVpnDriverResponse<List<NetIpSecModel>>>();
+        msg.setStatus(200);
+        msg.setDecoded(res);
+        return msg;
+    }
+
+    private static void mockController(final int totalRecords, final boolean paged, final int failedPage) {
+        new MockUp<OverlayVpnDriverProxy>() {
+
+            @Mock
+            public HTTPReturnMessage sendGetMsg(String url, String ctlrUuid, JavaType responseType) {
+                return queryPage(url, totalRecords, paged, failedPage);
+            }
+        };
+
+        new MockUp<OverlayVpnDriverAsyncProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> sendGetMsg(String url, String body, String ctlrUuid) {
+                return CompletableFuture.completedFuture(queryPage(url, totalRecords, paged, failedPage));
+            }
+        };
+    }
+
+    @Test
+    public void testAllPagesInOrder() throws ServiceException {
+        mockController(250, true, -1);
+        List<NetIpSecModel> records =
+                new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 20, 3).toList();
+
+        assertEquals(250, records.size());
+        for(int i = 0; i < records.size(); i++) {
+            assertEquals("ipsec" + i, records.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testStream() {
+        mockController(45, true, -1);
+        List<String> names = new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 10, 2).stream()
+                .map(NetIpSecModel::getName).collect(Collectors.toList());
+
+        assertEquals(45, names.size());
+        assertEquals("ipsec44", names.get(44));
+    }
+
+    @Test
+    public void testStreamClosedEarly() {
+        new MockUp<OverlayVpnDriverProxy>() {
+
+            @Mock
+            public HTTPReturnMessage sendGetMsg(String url, String ctlrUuid, JavaType responseType) {
+                return queryPage(url, 250, true, -1);
+            }
+        };
+
+        final List<CompletableFuture<HTTPReturnMessage>> pages = new ArrayList<CompletableFuture<HTTPReturnMessage>>();
+        new MockUp<OverlayVpnDriverAsyncProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> sendGetMsg(String url, String body, String ctlrUuid) {
+                CompletableFuture<HTTPReturnMessage> page = new CompletableFuture<HTTPReturnMessage>();
+                pages.add(page);
+                return page;
+            }
+        };
+
+        try(Stream<NetIpSecModel> records =
+                new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 20, 3).stream()) {
+            assertEquals("ipsec0", records.findFirst().get().getName());
+        }
+        assertEquals(3, pages.size());
+    }
+
+    @Test
+    public void testPageTimedOut() {
+        new MockUp<OverlayVpnDriverProxy>() {
+
+            @Mock
+            public HTTPReturnMessage sendGetMsg(String url, String ctlrUuid, JavaType responseType) {
+                return queryPage(url, 250, true, -1);
+            }
+        };
+
+        final List<CompletableFuture<HTTPReturnMessage>> pages = new ArrayList<CompletableFuture<HTTPReturnMessage>>();
+        new MockUp<OverlayVpnDriverAsyncProxy>() {
+
+            @Mock
+            public CompletableFuture<HTTPReturnMessage> sendGetMsg(String url, String body, String ctlrUuid) {
+                CompletableFuture<HTTPReturnMessage> page = new CompletableFuture<HTTPReturnMessage>();
+                pages.add(page);
+                return page;
+            }
+        };
+
+        RequestDeadline.setNanos(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+        try {
+            new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 20, 3).toList();
+            fail("page that never arrives must time out");
+        } catch(ServiceException e) {
+            assertEquals(3, pages.size());
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    @Test
+    public void testUnpagedResponse() throws ServiceException {
+        mockController(150, false, -1);
+        assertEquals(150, new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 20, 3).toList()
+                .size());
+    }
+
+    @Test
+    public void testEmptyListing() throws ServiceException {
+        mockController(0, true, -1);
+        assertEquals(Collections.emptyList(),
+                new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class).toList());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testFailedPage() throws ServiceException {
+        mockController(100, true, 3);
+        new ControllerPagedQuery<NetIpSecModel>("ctrl", URL, NetIpSecModel.class, 20, 2).toList();
+    }
+
+    @Test
+    public void testPageUrl() {
+        ControllerPagedQuery<NetIpSecModel> query =
+                new ControllerPagedQuery<NetIpSecModel>("ctrl", URL + "?interfaceName=eth0", NetIpSecModel.class);
+        assertTrue(query.getPageUrl(2).endsWith("?interfaceName=eth0&pageIndex=2&pageSize=100"));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+import org.openo.sdno.overlayvpndriver.model.ipsec.adapter.NetIpSecModel;
+import org.openo.sdno.util.http.HTTPReturnMessage;
+
+public class ControllerUtilTest {
+
+    private static HTTPReturnMessage createMsg(String body) {
+        HTTPReturnMessage msg = new HTTPReturnMessage();
+        msg.setStatus(200);
+        msg.setBody(body);
+        return msg;
+    }
+
+    @Test
+    public void testCheckRspTyped() throws ServiceException {
+        List<NetIpSecModel> data = new ControllerUtil<NetIpSecModel>(NetIpSecModel.class)
+                .checkRsp(createMsg("{\"errcode\":\"0\",\"data\":[{\"name\":\"ipsec1\"}]}"));
+
+        assertEquals(1, data.size());
+        assertEquals("ipsec1", data.get(0).getName());
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testCheckRspErrcode() throws ServiceException {
+        new ControllerUtil<NetIpSecModel>(NetIpSecModel.class)
+                .checkRsp(createMsg("{\"errcode\":\"1\",\"errmsg\":\"failed\"}"));
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testCheckRspInvalidBody() throws ServiceException {
+        new ControllerUtil<NetIpSecModel>(NetIpSecModel.class).checkRsp(createMsg("invalid"));
+    }
+}
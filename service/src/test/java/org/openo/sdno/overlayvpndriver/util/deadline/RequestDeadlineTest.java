@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.openo.sdno.overlayvpndriver.util.deadline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openo.baseservice.remoteservice.exception.ServiceException;
+
+public class RequestDeadlineTest {
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void testNoDeadline() throws ServiceException {
+        assertNull(RequestDeadline.getNanos());
+        assertFalse(RequestDeadline.isExpired());
+        assertEquals(500, RequestDeadline.bound(500));
+        RequestDeadline.check("test");
+    }
+
+    @Test
+    public void testBoundByDeadline() {
+        RequestDeadline.set(System.currentTimeMillis() + 1000);
+        assertFalse(RequestDeadline.isExpired());
+        assertTrue(RequestDeadline.bound(60000) <= 1000);
+        assertTrue(RequestDeadline.getNanos(60000) - System.nanoTime() <= 1000000000L);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testExpired() throws ServiceException {
+        RequestDeadline.set(System.currentTimeMillis() - 1);
+        assertTrue(RequestDeadline.isExpired());
+        assertEquals(1, RequestDeadline.bound(500));
+        RequestDeadline.check("test");
+    }
+}